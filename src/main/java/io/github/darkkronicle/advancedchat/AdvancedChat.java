@@ -2,6 +2,7 @@ package io.github.darkkronicle.advancedchat;
 
 
 import fi.dy.masa.malilib.event.InitializationHandler;
+import io.github.darkkronicle.advancedchat.chat.ChatHistory;
 import io.github.darkkronicle.advancedchat.chat.tabs.MainChatTab;
 import io.github.darkkronicle.advancedchat.config.ChatLogData;
 import io.github.darkkronicle.advancedchat.gui.AdvancedSleepingChatScreen;
@@ -15,12 +16,9 @@ import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
-import org.apache.commons.compress.utils.IOUtils;
 import org.lwjgl.glfw.GLFW;
 
-import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -164,21 +162,7 @@ public class AdvancedChat implements ClientModInitializer {
                 client.setScreen(null);
             }
         });
-        File english = new File("./config/advancedchat/english.zip");
-        if (!english.exists()) {
-            new File("./config/advancedchat/").mkdirs();
-            // Move dictionary so that we can access it easier
-            try (FileOutputStream output = new FileOutputStream(english)) {
-                InputStream stream = getResource("english.zip");
-                IOUtils.copy(stream, output);
-                stream.close();
-                System.out.println("Moved english jar!");
-            } catch (Exception e) {
-                System.out.println("Couldn't load english.jar");
-                e.printStackTrace();
-            }
-            
-        }
+        ClientTickEvents.END_CLIENT_TICK.register(s -> ChatHistory.getInstance().flushQueue());
     }
     
 }
@@ -41,6 +41,13 @@ public class AdvancedSuggestion extends Suggestion {
         this(range, text, null, null);
     }
 
+    /**
+     * Called when this suggestion gets put into the chat box.
+     */
+    public void onComplete() {
+
+    }
+
     @Override
     public int compareTo(final Suggestion o) {
         if (o instanceof AdvancedSuggestion) {
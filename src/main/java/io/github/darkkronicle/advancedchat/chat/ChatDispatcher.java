@@ -1,24 +1,32 @@
 package io.github.darkkronicle.advancedchat.chat;
 
+import com.google.common.collect.ImmutableList;
 import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.filters.ColorFilter;
+import io.github.darkkronicle.advancedchat.filters.FilterMatcher;
 import io.github.darkkronicle.advancedchat.filters.ParentFilter;
 import io.github.darkkronicle.advancedchat.filters.ReplaceFilter;
 import io.github.darkkronicle.advancedchat.interfaces.IFilter;
 import io.github.darkkronicle.advancedchat.mixin.MixinChatHudInvoker;
 import io.github.darkkronicle.advancedchat.util.ColorUtil;
 import io.github.darkkronicle.advancedchat.util.FluidText;
+import io.github.darkkronicle.advancedchat.util.PatternCache;
+import io.github.darkkronicle.advancedchat.util.SyncTaskQueue;
 import lombok.Getter;
+import lombok.Value;
 import io.github.darkkronicle.advancedchat.filters.ForwardFilter;
 import io.github.darkkronicle.advancedchat.interfaces.IMessageProcessor;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
+import org.apache.logging.log4j.LogManager;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * A hook into {@link MessageDispatcher} for forwarding chat events. This handles the filters
@@ -29,7 +37,22 @@ public class ChatDispatcher implements IMessageProcessor {
     @Getter
     private ArrayList<ColorFilter> colorFilters = new ArrayList<>();
 
-    private ArrayList<ParentFilter> filters = new ArrayList<>();
+    /**
+     * Compiled filters and the matcher built from them. Swapped together so a message being processed on another
+     * thread always sees a matching pair.
+     */
+    @Value
+    private static class CompiledFilters {
+        ImmutableList<ParentFilter> filters;
+        FilterMatcher matcher;
+
+        private CompiledFilters(ImmutableList<ParentFilter> filters) {
+            this.filters = filters;
+            this.matcher = new FilterMatcher(filters);
+        }
+    }
+
+    private volatile CompiledFilters compiled = new CompiledFilters(ImmutableList.of());
 
     private final static ChatDispatcher INSTANCE = new ChatDispatcher();
 
@@ -62,7 +85,9 @@ public class ChatDispatcher implements IMessageProcessor {
 
     private ChatDispatcher() {
         setFinalProcessor((text, original) -> {
-            ((MixinChatHudInvoker) MinecraftClient.getInstance().inGameHud.getChatHud()).invokeAddMessage(text, 0, MinecraftClient.getInstance().inGameHud.getTicks(), false);
+            SyncTaskQueue.getInstance().runOnClient(() ->
+                    ((MixinChatHudInvoker) MinecraftClient.getInstance().inGameHud.getChatHud()).invokeAddMessage(text, 0, MinecraftClient.getInstance().inGameHud.getTicks(), false)
+            );
             return true;
         });
     }
@@ -72,14 +97,27 @@ public class ChatDispatcher implements IMessageProcessor {
         FluidText unfiltered = text;
 
         ColorUtil.SimpleColor backgroundColor = null;
-        // Filter text
-        for (ParentFilter filter : filters) {
-            ParentFilter.FilterResult result = filter.filter(text, unfiltered);
+        CompiledFilters compiled = this.compiled;
+        List<ParentFilter> filters = compiled.getFilters();
+        FilterMatcher matcher = compiled.getMatcher();
+        String string = text.getString();
+        // Only filters that could match get checked
+        BitSet candidates = matcher.getCandidates(string);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            ParentFilter.FilterResult result = filters.get(i).filter(text, unfiltered);
             if (result.getColor().isPresent()) {
                 backgroundColor = result.getColor().get();
             }
             if (result.getText().isPresent()) {
                 text = result.getText().get();
+                String newString = text.getString();
+                if (!newString.equals(string)) {
+                    // The text changed so later filters may match differently
+                    string = newString;
+                    BitSet rescanned = matcher.getCandidates(string);
+                    rescanned.clear(0, i + 1);
+                    candidates = rescanned;
+                }
             }
         }
         text.setBackgroundColor(backgroundColor);
@@ -92,55 +130,72 @@ public class ChatDispatcher implements IMessageProcessor {
 
     /**
      * Loads filters that are stored in ConfigStorage.
+     *
+     * This also clears {@link PatternCache} so expressions from old filters don't take up space.
      */
     public void loadFilters() {
-        filters = new ArrayList<>();
+        PatternCache.getInstance().clear();
+        ImmutableList.Builder<ParentFilter> builder = ImmutableList.builder();
         colorFilters = new ArrayList<>();
         for (Filter filter : ConfigStorage.FILTERS) {
             // If it replaces anything.
             ParentFilter filt = createFilter(filter);
             if (filt != null) {
-                filters.add(filt);
+                builder.add(filt);
             }
         }
+        this.compiled = new CompiledFilters(builder.build());
     }
 
+    /**
+     * Compiles a {@link Filter} into an immutable {@link ParentFilter}. All expressions and children are resolved
+     * here so that filtering a message doesn't need to do any setup.
+     *
+     * @param filter Filter to compile
+     * @return Compiled filter. Null if the filter is inactive or invalid.
+     */
     public static ParentFilter createFilter(Filter filter) {
         if (!filter.getActive().config.getBooleanValue()) {
             return null;
         }
-        ParentFilter filt = new ParentFilter(filter.getFind(), filter.getFindString().config.getStringValue());
+        List<IFilter> filters = new ArrayList<>();
+        List<ForwardFilter> forwardFilters = new ArrayList<>();
         if (filter.getReplace() != null) {
             if (filter.getReplace().useChildren()) {
-                ReplaceFilter f = new ReplaceFilter(filter.getReplaceTo().config.getStringValue().replaceAll("&", "§"), filter.getReplace(), null);
+                List<ParentFilter> children = new ArrayList<>();
                 if (filter.getChildren() != null) {
                     for (Filter child : filter.getChildren()) {
                         ParentFilter childf = createFilter(child);
                         if (childf != null) {
-                            f.addChild(childf);
+                            children.add(childf);
                         }
                     }
                 }
-                filt.addFilter(f);
+                filters.add(new ReplaceFilter(filter.getReplaceTo().config.getStringValue().replaceAll("&", "§"), filter.getReplace(), null, children));
             } else if (filter.getReplaceTextColor().config.getBooleanValue()) {
-                filt.addFilter(new ReplaceFilter(filter.getReplaceTo().config.getStringValue().replaceAll("&", "§"), filter.getReplace(), filter.getTextColor().config.getSimpleColor()));
+                filters.add(new ReplaceFilter(filter.getReplaceTo().config.getStringValue().replaceAll("&", "§"), filter.getReplace(), filter.getTextColor().config.getSimpleColor()));
             } else {
-                filt.addFilter(new ReplaceFilter(filter.getReplaceTo().config.getStringValue().replaceAll("&", "§"), filter.getReplace(), null));
+                filters.add(new ReplaceFilter(filter.getReplaceTo().config.getStringValue().replaceAll("&", "§"), filter.getReplace(), null));
             }
         }
         if (filter.getReplaceBackgroundColor().config.getBooleanValue()) {
-            filt.addFilter(new ColorFilter(filter.getBackgroundColor().config.getSimpleColor()));
+            filters.add(new ColorFilter(filter.getBackgroundColor().config.getSimpleColor()));
         }
         if (filter.getProcessors().activeAmount() > 0) {
             if (filter.getProcessors().activeAmount() == 1) {
                 // If it's only the default, don't do anything
                 if (!filter.getProcessors().getDefaultOption().isActive()) {
-                    filt.addFilter(new ForwardFilter(filter.getProcessors()));
+                    filters.add(new ForwardFilter(filter.getProcessors()));
                 }
             } else {
-                filt.addForwardFilter(new ForwardFilter(filter.getProcessors()));
+                forwardFilters.add(new ForwardFilter(filter.getProcessors()));
             }
         }
-        return filt;
+        try {
+            return new ParentFilter(filter.getFind(), filter.getFindString().config.getStringValue(), filters, forwardFilters);
+        } catch (PatternSyntaxException e) {
+            LogManager.getLogger().warn("[AdvancedChat] Filter '{}' has an invalid expression and won't be used", filter.getName().config.getStringValue(), e);
+            return null;
+        }
     }
 }
@@ -8,6 +8,7 @@ import io.github.darkkronicle.advancedchat.chat.registry.ChatFormatterRegistry;
 import io.github.darkkronicle.advancedchat.util.FluidText;
 import io.github.darkkronicle.advancedchat.util.RawText;
 import io.github.darkkronicle.advancedchat.util.StringMatch;
+import io.github.darkkronicle.advancedchat.util.StylePool;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.gui.widget.TextFieldWidget;
@@ -16,7 +17,9 @@ import net.minecraft.text.Style;
 import net.minecraft.text.TextColor;
 import net.minecraft.util.Formatting;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -34,6 +37,19 @@ public class ChatFormatter {
      * The formatted current
      */
     private FluidText last = null;
+
+    /**
+     * Suggestions that were used to format current
+     */
+    private List<AdvancedSuggestions> lastSuggestions = null;
+
+    /**
+     * Last part of the text that was rendered
+     */
+    private OrderedText segment = null;
+    private int segmentStart = -1;
+    private int segmentLength = -1;
+
     private final TextFieldWidget widget;
     private final ChatSuggestor suggestor;
 
@@ -48,8 +64,18 @@ public class ChatFormatter {
      * @return Formatted FluidText. If nothing is changed it will be the contents with Style.EMPTY
      */
     public FluidText format(String string) {
-        FluidText text = new FluidText(new RawText(string, Style.EMPTY));
-        if (string.length() == 0) {
+        return format(string, 0);
+    }
+
+    /**
+     * Format's the chat box contents from an index onwards
+     * @param string Contents
+     * @param start Where to start formatting from
+     * @return Formatted FluidText of the text after start
+     */
+    private FluidText format(String string, int start) {
+        FluidText text = new FluidText(new RawText(string.substring(start), Style.EMPTY));
+        if (string.length() == start) {
             return text;
         }
         if (suggestor.getAllSuggestions() != null) {
@@ -60,8 +86,12 @@ public class ChatFormatter {
                     continue;
                 }
                 StringRange range = suggestions.getRange();
+                if (range.getEnd() > string.length() || range.getStart() < start) {
+                    // Suggestions can be a frame behind the text
+                    continue;
+                }
                 String matchString = string.subSequence(range.getStart(), range.getEnd()).toString();
-                format.put(new StringMatch(matchString, range.getStart(), range.getEnd()), (current, match) -> {
+                format.put(new StringMatch(matchString, range.getStart() - start, range.getEnd() - start), (current, match) -> {
                     Style style = Style.EMPTY;
                     style = style.withFormatting(Formatting.UNDERLINE);
                     TextColor textColor = TextColor.fromRgb(ConfigStorage.ChatSuggestor.AVAILABLE_SUGGESTION_COLOR.config.getSimpleColor().color());
@@ -83,23 +113,93 @@ public class ChatFormatter {
         return text;
     }
 
+    /**
+     * Formats new content, keeping what was already formatted before the first change where the formatters allow it.
+     * @param string New contents
+     * @return Formatted FluidText
+     */
+    private FluidText reformat(String string) {
+        if (last == null || current == null || suggestor.getAllSuggestions() != lastSuggestions) {
+            return format(string);
+        }
+        int changed = 0;
+        int max = Math.min(string.length(), current.length());
+        while (changed < max && string.charAt(changed) == current.charAt(changed)) {
+            changed++;
+        }
+        int restart = getRestartIndex(string, getRestartIndex(current, changed));
+        if (restart <= 0) {
+            return format(string);
+        }
+        FluidText before = last.truncate(new StringMatch(current.substring(0, restart), 0, restart));
+        if (before == null) {
+            return format(string);
+        }
+        List<RawText> runs = new ArrayList<>(before.getRawTexts());
+        for (RawText run : format(string, restart).getRawTexts()) {
+            if (run.getMessage().isEmpty()) {
+                continue;
+            }
+            RawText previous = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (previous != null && StylePool.getInstance().equals(previous.getStyle(), run.getStyle())) {
+                // Keep runs from getting split up at every edit
+                runs.set(runs.size() - 1, previous.withMessage(previous.getMessage() + run.getMessage()));
+            } else {
+                runs.add(run);
+            }
+        }
+        return new FluidText(runs);
+    }
+
+    /**
+     * Get's the earliest index that every active formatter and suggestion can start again from
+     */
+    private int getRestartIndex(String string, int changed) {
+        int restart = changed;
+        for (ChatFormatterRegistry.ChatFormatterOption option : ChatFormatterRegistry.getInstance().getAll()) {
+            if (!option.isActive()) {
+                continue;
+            }
+            restart = Math.min(restart, option.getOption().getRestartIndex(string, restart, suggestor.getParse()));
+            if (restart <= 0) {
+                return 0;
+            }
+        }
+        if (lastSuggestions != null) {
+            for (AdvancedSuggestions suggestions : lastSuggestions) {
+                StringRange range = suggestions.getRange();
+                if (!suggestions.getSuggestions().isEmpty() && range.getEnd() > restart) {
+                    restart = Math.min(restart, range.getStart());
+                }
+            }
+        }
+        return restart;
+    }
+
     private OrderedText set(String s, Integer integer) {
         int length = s.length();
         if (length == 0) {
             return OrderedText.EMPTY;
         }
-        return last.truncate(new StringMatch(s, integer, integer + length)).asOrderedText();
+        if (segment == null || segmentStart != integer || segmentLength != length) {
+            segment = last.truncate(new StringMatch(s, integer, integer + length)).asOrderedText();
+            segmentStart = integer;
+            segmentLength = length;
+        }
+        return segment;
     }
 
 
     public OrderedText apply(String s, Integer integer) {
         String text = widget.getText();
-        if (text.equals(current)) {
+        if (text.equals(current) && suggestor.getAllSuggestions() == lastSuggestions) {
             // If the content hasn't changed, use the previous one.
             return set(s, integer);
         }
+        last = reformat(text);
         current = text;
-        last = format(text);
+        lastSuggestions = suggestor.getAllSuggestions();
+        segment = null;
         return set(s, integer);
     }
 }
@@ -6,11 +6,13 @@ import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.gui.AdvancedChatHud;
 import io.github.darkkronicle.advancedchat.gui.ChatLogScreen;
 import io.github.darkkronicle.advancedchat.gui.ChatWindow;
+import io.github.darkkronicle.advancedchat.util.RingBuffer;
 import lombok.Getter;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,8 +23,16 @@ public class ChatHistory {
 
     private final static ChatHistory INSTANCE = new ChatHistory();
 
+    /**
+     * Stored messages, newest first
+     */
     @Getter
-    private final List<ChatMessage> messages = new ArrayList<>();
+    private final RingBuffer<ChatMessage> messages = new RingBuffer<>(ConfigStorage.ChatLog.STORED_LINES.config.getIntegerValue());
+
+    /**
+     * Messages that will be added at the end of the tick
+     */
+    private final List<ChatMessage> queued = new ArrayList<>();
 
     public static ChatHistory getInstance() {
         return INSTANCE;
@@ -37,6 +47,7 @@ public class ChatHistory {
      */
     public void clearAll() {
         this.messages.clear();
+        this.queued.clear();
         AdvancedChatHud.getInstance().clear();
         AdvancedChat.getChatLogData().clearLines();
     }
@@ -46,6 +57,29 @@ public class ChatHistory {
      */
     public void clear() {
         messages.clear();
+        queued.clear();
+    }
+
+    /**
+     * Queues a message to be added with every other message that comes in this tick. Queued messages are added
+     * when {@link #flushQueue()} is called at the end of the tick.
+     *
+     * @param message Message to add
+     */
+    public void queue(ChatMessage message) {
+        queued.add(message);
+    }
+
+    /**
+     * Adds all queued messages in one batch.
+     */
+    public void flushQueue() {
+        if (queued.isEmpty()) {
+            return;
+        }
+        List<ChatMessage> toAdd = new ArrayList<>(queued);
+        queued.clear();
+        addAll(toAdd);
     }
 
     /**
@@ -53,20 +87,60 @@ public class ChatHistory {
      * @param message
      */
     public void add(ChatMessage message) {
-        for (int i = 0; i < ConfigStorage.General.CHAT_STACK.config.getIntegerValue() && i < messages.size(); i++) {
-            ChatMessage chatLine = messages.get(i);
-            if (message.isSimilar(chatLine)) {
-                chatLine.setStacks(chatLine.getStacks() + 1);
+        addAll(Collections.singletonList(message));
+    }
+
+    /**
+     * Add's multiple chat messages to the history and forwards them to {@link AdvancedChatHud} in one batch.
+     *
+     * @param newMessages Messages to add, oldest first
+     */
+    public void addAll(List<ChatMessage> newMessages) {
+        int stackAmount = ConfigStorage.General.CHAT_STACK.config.getIntegerValue();
+        // Messages that haven't been inserted yet, oldest first
+        List<ChatMessage> added = new ArrayList<>();
+        for (ChatMessage message : newMessages) {
+            ChatMessage stackOn = null;
+            boolean delivered = false;
+            // Newest messages are at the end of added, then continue into the stored messages
+            for (int i = 0; i < stackAmount && i < added.size() + messages.size(); i++) {
+                ChatMessage chatLine;
+                if (i < added.size()) {
+                    chatLine = added.get(added.size() - i - 1);
+                } else {
+                    chatLine = messages.get(i - added.size());
+                    delivered = true;
+                }
+                if (message.isSimilar(chatLine)) {
+                    stackOn = chatLine;
+                    break;
+                }
+            }
+            if (stackOn == null) {
+                added.add(message);
+                continue;
+            }
+            stackOn.setStacks(stackOn.getStacks() + 1);
+            if (delivered) {
+                // Anything before this has to show up first
+                insert(added);
+                added.clear();
                 // We shallow clone each line so to have stacks apply to all tabs we gotta look through previous stuff.
-                AdvancedChatHud.getInstance().onStackedMessage(chatLine);
-                return;
+                AdvancedChatHud.getInstance().onStackedMessage(stackOn);
             }
         }
-        messages.add(0, message);
-        while (this.messages.size() > ConfigStorage.ChatLog.STORED_LINES.config.getIntegerValue()) {
-            this.messages.remove(this.messages.size() - 1);
+        insert(added);
+    }
+
+    private void insert(List<ChatMessage> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        messages.setCapacity(ConfigStorage.ChatLog.STORED_LINES.config.getIntegerValue());
+        for (ChatMessage message : added) {
+            messages.addFirst(message);
         }
-        AdvancedChatHud.getInstance().onNewMessage(message);
+        AdvancedChatHud.getInstance().onNewMessages(added);
     }
 
     /**
@@ -75,6 +149,7 @@ public class ChatHistory {
      */
     public void removeMessage(int messageId) {
         this.messages.removeIf(line -> line.getId() == messageId);
+        this.queued.removeIf(line -> line.getId() == messageId);
     }
 
 }
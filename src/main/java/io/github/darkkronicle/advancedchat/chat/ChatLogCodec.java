@@ -0,0 +1,186 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import io.github.darkkronicle.advancedchat.AdvancedChat;
+import io.github.darkkronicle.advancedchat.chat.tabs.AbstractChatTab;
+import io.github.darkkronicle.advancedchat.util.FluidText;
+import io.github.darkkronicle.advancedchat.util.PackedText;
+import io.github.darkkronicle.advancedchat.util.RawText;
+import lombok.experimental.UtilityClass;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.text.Style;
+import net.minecraft.text.TextColor;
+import net.minecraft.util.Formatting;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary encoding of a {@link ChatLogMessage} for {@link PersistentChatLog}.
+ *
+ * A record is an int length followed by the body:
+ * <pre>
+ * long   time in epoch milliseconds
+ * byte   1 if there's an owner
+ * (long, long, string) owner uuid and name
+ * byte   tab count, then a string for each tab name
+ * int    run count, then for each {@link RawText}: int rgb color (-1 for none), byte formatting flags, string
+ * </pre>
+ * Strings are an int length followed by UTF-8 bytes. Only color and formatting is kept from each style, click and
+ * hover events are not stored.
+ */
+@Environment(EnvType.CLIENT)
+@UtilityClass
+public class ChatLogCodec {
+
+    private final int BOLD = 1;
+    private final int ITALIC = 1 << 1;
+    private final int UNDERLINED = 1 << 2;
+    private final int STRIKETHROUGH = 1 << 3;
+    private final int OBFUSCATED = 1 << 4;
+
+    /**
+     * Encodes a message into a record, including the length prefix.
+     *
+     * @param message Message to encode
+     * @param time Time the message was received in epoch milliseconds
+     * @return Encoded record
+     */
+    public byte[] encode(ChatLogMessage message, long time) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            // Length gets filled in at the end
+            out.writeInt(0);
+            out.writeLong(time);
+            MessageOwner owner = message.getOwner();
+            if (owner != null && owner.getEntry() != null) {
+                out.writeByte(1);
+                UUID uuid = owner.getEntry().getProfile().getId();
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+                writeString(out, owner.getName());
+            } else {
+                out.writeByte(0);
+            }
+            AbstractChatTab[] tabs = message.getTab() == null ? new AbstractChatTab[0] : message.getTab();
+            out.writeByte(Math.min(tabs.length, 255));
+            for (int i = 0; i < tabs.length && i < 255; i++) {
+                writeString(out, tabs[i].getName());
+            }
+            PackedText display = message.getDisplay();
+            out.writeInt(display.size());
+            for (int i = 0; i < display.size(); i++) {
+                Style style = display.getStyle(i) == null ? Style.EMPTY : display.getStyle(i);
+                out.writeInt(style.getColor() == null ? -1 : style.getColor().getRgb());
+                int flags = 0;
+                flags |= style.isBold() ? BOLD : 0;
+                flags |= style.isItalic() ? ITALIC : 0;
+                flags |= style.isUnderlined() ? UNDERLINED : 0;
+                flags |= style.isStrikethrough() ? STRIKETHROUGH : 0;
+                flags |= style.isObfuscated() ? OBFUSCATED : 0;
+                out.writeByte(flags);
+                writeString(out, display.getString(i));
+            }
+            out.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream doesn't throw
+            throw new IllegalStateException(e);
+        }
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(0, record.length - 4);
+        return record;
+    }
+
+    /**
+     * Decodes the record body at the buffer's position.
+     *
+     * @param buffer Buffer positioned after the length prefix
+     * @return Decoded message
+     */
+    public ChatLogMessage decode(ByteBuffer buffer) {
+        long time = buffer.getLong();
+        if (buffer.get() == 1) {
+            // Owner is only kept for audits, there's no player entry to rebuild it with
+            buffer.getLong();
+            buffer.getLong();
+            readString(buffer);
+        }
+        int tabCount = buffer.get() & 0xFF;
+        List<AbstractChatTab> tabs = new ArrayList<>();
+        for (int i = 0; i < tabCount; i++) {
+            AbstractChatTab tab = findTab(readString(buffer));
+            if (tab != null) {
+                tabs.add(tab);
+            }
+        }
+        int runCount = buffer.getInt();
+        List<RawText> runs = new ArrayList<>(runCount);
+        for (int i = 0; i < runCount; i++) {
+            int color = buffer.getInt();
+            int flags = buffer.get();
+            Style style = Style.EMPTY;
+            if (color != -1) {
+                style = style.withColor(TextColor.fromRgb(color));
+            }
+            if ((flags & BOLD) != 0) {
+                style = style.withFormatting(Formatting.BOLD);
+            }
+            if ((flags & ITALIC) != 0) {
+                style = style.withFormatting(Formatting.ITALIC);
+            }
+            if ((flags & UNDERLINED) != 0) {
+                style = style.withFormatting(Formatting.UNDERLINE);
+            }
+            if ((flags & STRIKETHROUGH) != 0) {
+                style = style.withFormatting(Formatting.STRIKETHROUGH);
+            }
+            if ((flags & OBFUSCATED) != 0) {
+                style = style.withFormatting(Formatting.OBFUSCATED);
+            }
+            runs.add(new RawText(readString(buffer), style));
+        }
+        FluidText text = new FluidText(runs);
+        ChatMessage message = ChatMessage.builder()
+                .displayText(text)
+                .originalText(text)
+                .time(time)
+                .tabs(tabs)
+                .build();
+        return new ChatLogMessage(message, tabs.toArray(new AbstractChatTab[0]));
+    }
+
+    private AbstractChatTab findTab(String name) {
+        if (AdvancedChat.chatTab == null) {
+            return null;
+        }
+        if (AdvancedChat.chatTab.getName().equals(name)) {
+            return AdvancedChat.chatTab;
+        }
+        for (AbstractChatTab tab : AdvancedChat.chatTab.getAllChatTabs()) {
+            if (tab.getName().equals(name)) {
+                return tab;
+            }
+        }
+        return null;
+    }
+
+    private void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = (string == null ? "" : string).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
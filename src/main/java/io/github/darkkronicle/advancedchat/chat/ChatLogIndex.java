@@ -0,0 +1,215 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import io.github.darkkronicle.advancedchat.config.Filter;
+import io.github.darkkronicle.advancedchat.filters.FilterMatcher;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index of the chat log that maps every three character sequence (trigram) to the messages that contain it.
+ *
+ * Messages are identified by a sequence number that goes up by one for every message that gets added. Characters are
+ * lower cased before they're indexed, so a lookup only narrows down which messages could contain a string. Matches
+ * still have to be checked against the message.
+ */
+@Environment(EnvType.CLIENT)
+public class ChatLogIndex {
+
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int start = 0;
+        private int size = 0;
+
+        private void add(int id) {
+            if (size > start && ids[size - 1] == id) {
+                // Trigram was already in this message
+                return;
+            }
+            if (size == ids.length) {
+                if (start > 0) {
+                    System.arraycopy(ids, start, ids, 0, size - start);
+                    size -= start;
+                    start = 0;
+                }
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+            }
+            ids[size++] = id;
+        }
+
+        /**
+         * Drops every id that's lower than the first stored id
+         */
+        private void trim(int first) {
+            while (start < size && ids[start] < first) {
+                start++;
+            }
+        }
+
+        private int count() {
+            return size - start;
+        }
+
+    }
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * Sequence number that the next message gets
+     */
+    private int next = 0;
+
+    /**
+     * Lowest sequence number that is still stored
+     */
+    private int first = 0;
+
+    private int sinceCompact = 0;
+
+    /**
+     * Adds a message to the index.
+     *
+     * @param text String of the message
+     * @return Sequence number of the message
+     */
+    public int add(String text) {
+        int id = next++;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            long key = trigram(text, i);
+            postings.computeIfAbsent(key, k -> new Postings()).add(id);
+        }
+        return id;
+    }
+
+    /**
+     * Forgets every message with a lower sequence number. Used when old messages are evicted from the log.
+     *
+     * @param first Lowest sequence number that is still stored
+     */
+    public void setFirst(int first) {
+        if (first <= this.first) {
+            return;
+        }
+        sinceCompact += first - this.first;
+        this.first = first;
+        // Stale ids are skipped on lookup, every so often get rid of them for real
+        if (sinceCompact > 1024 && sinceCompact > (next - first)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        sinceCompact = 0;
+        Iterator<Postings> iterator = postings.values().iterator();
+        while (iterator.hasNext()) {
+            Postings list = iterator.next();
+            list.trim(first);
+            if (list.count() == 0) {
+                iterator.remove();
+            } else if (list.start > 0) {
+                list.ids = Arrays.copyOfRange(list.ids, list.start, Math.max(list.size, list.start + 4));
+                list.size -= list.start;
+                list.start = 0;
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        first = next;
+        sinceCompact = 0;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getNext() {
+        return next;
+    }
+
+    /**
+     * Finds the messages that could match a search. Regex searches are narrowed down with the literal that every match
+     * has to contain, see {@link FilterMatcher#getRequiredLiteral(String)}.
+     *
+     * @param search Expression to find
+     * @param type How the search should be interpreted
+     * @return Sorted sequence numbers of the possible messages. Null if the search can't narrow anything down.
+     */
+    public int[] getCandidates(String search, Filter.FindType type) {
+        switch (type) {
+            case LITERAL:
+            case UPPERLOWER:
+                return getCandidates(search);
+            case REGEX:
+                return getCandidates(FilterMatcher.getRequiredLiteral(search));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Finds the messages that could contain a string.
+     *
+     * @param literal String that has to be contained
+     * @return Sorted sequence numbers of the possible messages. Null if the string is too short to narrow anything down.
+     */
+    public int[] getCandidates(String literal) {
+        if (literal == null || literal.length() < 3) {
+            return null;
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= literal.length(); i++) {
+            Postings list = postings.get(trigram(literal, i));
+            if (list == null) {
+                return new int[0];
+            }
+            list.trim(first);
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        // Start with the rarest trigram so the intersection stays small
+        lists.sort((o1, o2) -> Integer.compare(o1.count(), o2.count()));
+        Postings smallest = lists.get(0);
+        int[] result = Arrays.copyOfRange(smallest.ids, smallest.start, smallest.size);
+        int length = result.length;
+        for (int i = 1; i < lists.size() && length > 0; i++) {
+            length = intersect(result, length, lists.get(i));
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    private static int intersect(int[] result, int length, Postings list) {
+        int kept = 0;
+        int j = list.start;
+        for (int i = 0; i < length; i++) {
+            int id = result[i];
+            while (j < list.size && list.ids[j] < id) {
+                j++;
+            }
+            if (j >= list.size) {
+                break;
+            }
+            if (list.ids[j] == id) {
+                result[kept++] = id;
+            }
+        }
+        return kept;
+    }
+
+    private static long trigram(CharSequence text, int index) {
+        return ((long) Character.toLowerCase(text.charAt(index)) << 32)
+                | ((long) Character.toLowerCase(text.charAt(index + 1)) << 16)
+                | Character.toLowerCase(text.charAt(index + 2));
+    }
+
+}
@@ -12,8 +12,14 @@ import net.fabricmc.api.Environment;
 public class ChatLogMessage extends ChatMessage {
     private AbstractChatTab[] tab;
 
+    /**
+     * Makes the chat log's view of a message. The payload is shared with the message, and it's never wrapped.
+     * @param message Message to log
+     * @param tabs Tabs the message went into
+     */
     public ChatLogMessage(ChatMessage message, AbstractChatTab... tabs) {
-        super(message.creationTick, message.displayText, message.originalText, message.id, message.time, message.background, 600, message.owner, message.tabs);
+        super(message.getPayload(), 0, message.getTabs());
+        this.creationTick = message.getCreationTick();
         this.tab = tabs;
     }
 
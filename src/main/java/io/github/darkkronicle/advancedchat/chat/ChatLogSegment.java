@@ -0,0 +1,214 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import lombok.Getter;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * One file of a {@link PersistentChatLog}. Records are read through a memory mapping of the file, so only the offset
+ * of each record is kept on the heap.
+ *
+ * Appended records are buffered and written with {@link #flush()}. The file is never truncated while it's mapped,
+ * since that fails on Windows.
+ */
+@Environment(EnvType.CLIENT)
+public class ChatLogSegment {
+
+    /**
+     * How much is read at a time when looking for records
+     */
+    private final static int SCAN_BUFFER = 64 * 1024;
+
+    /**
+     * How much can be buffered before it gets written
+     */
+    private final static int FLUSH_SIZE = 64 * 1024;
+
+    @Getter
+    private final Path path;
+
+    /**
+     * Start of every record in the file
+     */
+    private int[] offsets = new int[64];
+
+    @Getter
+    private int count = 0;
+
+    /**
+     * Bytes of complete records, including ones that are still buffered
+     */
+    @Getter
+    private long size = 0;
+
+    /**
+     * Bytes that are in the file. Everything after this is still in {@link #pending}.
+     */
+    private long flushed = 0;
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    private MappedByteBuffer mapped = null;
+
+    private FileChannel writer = null;
+
+    public ChatLogSegment(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Finds every record in an existing file. A record that was only partially written is cut off.
+     *
+     * @throws IOException If the file can't be read
+     */
+    public void load() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            // Only the lengths are needed, bodies get skipped over
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+            buffer.limit(0);
+            long bufferStart = 0;
+            long position = 0;
+            while (position + 4 <= fileSize) {
+                if (position + 4 > bufferStart + buffer.limit()) {
+                    bufferStart = position;
+                    buffer.clear();
+                    while (buffer.hasRemaining() && channel.read(buffer, bufferStart + buffer.position()) > 0) {
+                    }
+                    buffer.flip();
+                    if (buffer.limit() < 4) {
+                        break;
+                    }
+                }
+                int length = buffer.getInt((int) (position - bufferStart));
+                if (length < 0 || position + 4L + length > fileSize) {
+                    break;
+                }
+                addOffset((int) position);
+                position += 4 + length;
+            }
+            size = position;
+            flushed = position;
+            if (size < fileSize) {
+                // Nothing is mapped yet
+                channel.truncate(size);
+            }
+        }
+    }
+
+    /**
+     * Appends an encoded record.
+     *
+     * @param record Record from {@link ChatLogCodec#encode(ChatLogMessage, long)}
+     * @throws IOException If the file can't be written to
+     */
+    public void append(byte[] record) throws IOException {
+        pending.write(record);
+        addOffset((int) size);
+        size += record.length;
+        if (pending.size() >= FLUSH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     *
+     * @throws IOException If the file can't be written to
+     */
+    public void flush() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        if (writer == null) {
+            writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        while (buffer.hasRemaining()) {
+            writer.write(buffer);
+        }
+        pending.reset();
+        flushed = size;
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param index Index of the record in this segment
+     * @return Decoded message
+     * @throws IOException If the file can't be mapped
+     */
+    public ChatLogMessage read(int index) throws IOException {
+        return ChatLogCodec.decode(readRecord(index));
+    }
+
+    /**
+     * Get's the body of a record without decoding it.
+     *
+     * @param index Index of the record in this segment
+     * @return Buffer positioned after the length prefix
+     * @throws IOException If the file can't be mapped
+     */
+    ByteBuffer readRecord(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Count: " + count);
+        }
+        if (offsets[index] >= flushed) {
+            flush();
+        }
+        if (mapped == null || mapped.capacity() < flushed) {
+            // Appended to since it was last mapped. Only what's in the file can be mapped, records after it are still
+            // buffered.
+            map(flushed);
+        }
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position(offsets[index] + 4);
+        return buffer;
+    }
+
+    private void map(long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+    }
+
+    private void addOffset(int offset) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[count++] = offset;
+    }
+
+    /**
+     * Writes anything buffered and stops writing to this segment. It can still be read.
+     *
+     * @throws IOException If the buffered records couldn't be written
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+        }
+    }
+
+}
@@ -1,102 +1,174 @@
 package io.github.darkkronicle.advancedchat.chat;
 
 import io.github.darkkronicle.advancedchat.chat.tabs.AbstractChatTab;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import io.github.darkkronicle.advancedchat.util.ColorUtil;
-import io.github.darkkronicle.advancedchat.util.StyleFormatter;
+import io.github.darkkronicle.advancedchat.util.FluidText;
+import io.github.darkkronicle.advancedchat.util.PackedText;
+import io.github.darkkronicle.advancedchat.util.RawText;
+import io.github.darkkronicle.advancedchat.util.WrapCache;
+import lombok.Getter;
+import lombok.Setter;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.Style;
 import net.minecraft.text.Text;
+import net.minecraft.text.TextColor;
 
 import javax.annotation.Nullable;
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
- * A message from chat with data stored within it.
+ * A message from chat as it's shown in one place.
+ *
+ * The text and everything else that doesn't change is in a {@link MessagePayload} that's shared with every copy of
+ * the message. This only holds what's different between views, like the tabs, stacks and wrapped lines. The wrapped
+ * lines are only kept while the message is shown, and {@link #release()} lets them go once the message can't be seen
+ * anymore.
  */
 @Environment(EnvType.CLIENT)
 @Data
 public class ChatMessage {
 
+    /**
+     * Data shared by every view of the message.
+     */
+    @Setter(AccessLevel.NONE)
+    protected MessagePayload payload;
+
     /**
      * Tick the message was created.
      */
     protected int creationTick;
 
     /**
-     * The text that will be displayed on render.
+     * Display text for just this view. Null uses the payload's.
      */
-    protected Text displayText;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    protected PackedText display;
 
     /**
-     * The unmodified original text. Used to keep time stamp off of.
+     * The amount of times the message has been stacked.
      */
-    protected Text originalText;
+    protected int stacks;
 
     /**
-     * ID of the message.
+     * Split up lines for line breaks. Null until they're needed, see {@link #getLines()}.
      */
-    protected int id;
+    protected List<AdvancedChatLine> lines;
 
     /**
-     * The time the message was created.
+     * Width that the lines get wrapped to.
      */
-    protected LocalTime time;
+    protected int wrapWidth;
 
     /**
-     * The background color of the message.
+     * Amount of lines at {@link #wrapWidth}. Kept when the lines are released, -1 if it isn't known yet.
      */
-    protected ColorUtil.SimpleColor background;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    protected int lineCount = -1;
 
     /**
-     * The amount of times the message has been stacked.
+     * Tab's that the message has been filtered into.
      */
-    protected int stacks;
+    protected List<AbstractChatTab> tabs;
 
     /**
-     * Unique ID of the message.
+     * Set's the display text of the message for just this view and formats the line breaks.
+     * @param text Text to set to
+     * @param width The width that a line break should be enforced
      */
-    protected UUID uuid;
+    public void setDisplayText(Text text, int width) {
+        this.display = PackedText.of(text);
+        formatChildren(width);
+    }
+
+    public PackedText getDisplay() {
+        return display != null ? display : payload.getDisplay();
+    }
+
+    public PackedText getOriginal() {
+        return payload.getOriginal();
+    }
 
     /**
-     * The owner of the message.
+     * Get's the text that will be displayed. A new text is made every time.
+     * @return Display text
      */
-    @Nullable
-    protected MessageOwner owner;
+    public Text getDisplayText() {
+        return getDisplay().toText();
+    }
 
     /**
-     * Split up lines for line breaks.
+     * Get's the unmodified original text. A new text is made every time.
+     * @return Original text
      */
-    protected List<AdvancedChatLine> lines;
+    public Text getOriginalText() {
+        return getOriginal().toText();
+    }
+
+    public String getDisplayString() {
+        return getDisplay().getString();
+    }
+
+    public String getOriginalString() {
+        return getOriginal().getString();
+    }
+
+    public int getId() {
+        return payload.getId();
+    }
+
+    public long getUniqueId() {
+        return payload.getUniqueId();
+    }
 
     /**
-     * Tab's that the message has been filtered into.
+     * Get's the time the message was created
+     * @return Epoch milliseconds
      */
-    protected List<AbstractChatTab> tabs;
+    public long getTime() {
+        return payload.getTime();
+    }
 
     /**
-     * Set's the display text of the message and formats the line breaks.
-     * @param text Text to set to
-     * @param width The width that a line break should be enforced
+     * Get's the time the message was created in the system's time zone
+     * @return Time of day
      */
-    public void setDisplayText(Text text, int width) {
-        this.displayText = text;
-        formatChildren(width);
+    public LocalTime getLocalTime() {
+        return LocalTime.ofInstant(Instant.ofEpochMilli(getTime()), ZoneId.systemDefault());
+    }
+
+    public ColorUtil.SimpleColor getBackground() {
+        return payload.getBackground();
+    }
+
+    @Nullable
+    public MessageOwner getOwner() {
+        return payload.getOwner();
     }
 
     /**
-     * Clones the object
+     * Clones the object. The payload is shared with the clone.
      * @param width Width for the line breaks to be enforced
      * @return Cloned object
      */
     public ChatMessage shallowClone(int width) {
-        ChatMessage message = new ChatMessage(creationTick, displayText, originalText, id, time, background, width, owner, tabs);
+        ChatMessage message = new ChatMessage(payload, width, tabs);
+        message.setCreationTick(getCreationTick());
         message.setStacks(getStacks());
+        // Same packed text so the wrapping is shared
+        message.display = display;
         return message;
     }
 
@@ -112,10 +184,104 @@ public class ChatMessage {
         private final ChatMessage parent;
         private int width;
 
-        private AdvancedChatLine(ChatMessage parent, Text text) {
+        /**
+         * Cached text that gets drawn, with the stack count if it's shown. Rebuilt when the stack count changes.
+         */
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private OrderedText renderText;
+
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private int renderWidth;
+
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private int renderStacks = -1;
+
+        /**
+         * Cached background and the color it was made from. Rebuilt when the color it's made from changes.
+         */
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private ColorUtil.SimpleColor backgroundFrom;
+
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private ColorUtil.SimpleColor background;
+
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private ColorUtil.SimpleColor alternateBackground;
+
+        private AdvancedChatLine(ChatMessage parent, Text text, int width) {
             this.parent = parent;
             this.text = text;
-            this.width = MinecraftClient.getInstance().textRenderer.getWidth(text);
+            this.width = width;
+        }
+
+        public void setText(Text text) {
+            this.text = text;
+            this.renderText = null;
+        }
+
+        private void updateRenderText(boolean showStacks) {
+            int stacks = showStacks ? parent.getStacks() : 0;
+            if (renderText != null && stacks == renderStacks) {
+                return;
+            }
+            Text render = text;
+            if (stacks > 0) {
+                FluidText toPrint = new FluidText(render);
+                Style style = Style.EMPTY;
+                TextColor color = TextColor.fromRgb(ColorUtil.GRAY.color());
+                style = style.withColor(color);
+                toPrint.append(new RawText(" (" + (stacks + 1) + ")", style), false);
+                render = toPrint;
+            }
+            renderText = render.asOrderedText();
+            renderWidth = MinecraftClient.getInstance().textRenderer.getWidth(renderText);
+            renderStacks = stacks;
+        }
+
+        /**
+         * Get's the text that gets drawn.
+         * @param showStacks If the stack count should be added when the message is stacked
+         * @return Render text
+         */
+        public OrderedText getRenderText(boolean showStacks) {
+            updateRenderText(showStacks);
+            return renderText;
+        }
+
+        /**
+         * Get's the width of {@link #getRenderText(boolean)}
+         * @param showStacks If the stack count should be added when the message is stacked
+         * @return Render width
+         */
+        public int getRenderWidth(boolean showStacks) {
+            updateRenderText(showStacks);
+            return renderWidth;
+        }
+
+        /**
+         * Get's the background of the line.
+         * @param fallback Color to use if the message doesn't have a background
+         * @param alternate If the alpha should be alternated
+         * @return Background color
+         */
+        public ColorUtil.SimpleColor getBackground(ColorUtil.SimpleColor fallback, boolean alternate) {
+            ColorUtil.SimpleColor from = parent.getBackground() == null ? fallback : parent.getBackground();
+            if (from != backgroundFrom) {
+                backgroundFrom = from;
+                background = from;
+                if (from.alpha() <= 215) {
+                    alternateBackground = from.withAlpha(from.alpha() + 40);
+                } else {
+                    alternateBackground = from.withAlpha(from.alpha() - 40);
+                }
+            }
+            return alternate ? alternateBackground : background;
         }
 
         @Override
@@ -139,33 +305,56 @@ public class ChatMessage {
     }
 
     @Builder
-    protected ChatMessage(int creationTick, Text displayText, Text originalText, int id, LocalTime time, ColorUtil.SimpleColor background, int width, MessageOwner owner, List<AbstractChatTab> tabs) {
+    protected ChatMessage(int creationTick, Text displayText, Text originalText, boolean timestamped, int id, long time, ColorUtil.SimpleColor background, int width, MessageOwner owner, List<AbstractChatTab> tabs) {
+        this(new MessagePayload(id, time, PackedText.of(displayText), originalText == null || originalText == displayText ? null : PackedText.of(originalText), timestamped, background, owner), width, tabs);
         this.creationTick = creationTick;
-        this.displayText = displayText;
-        this.id = id;
-        this.time = time;
-        this.background = background;
+    }
+
+    protected ChatMessage(MessagePayload payload, int width, List<AbstractChatTab> tabs) {
+        this.payload = payload;
         this.stacks = 0;
-        this.uuid = UUID.randomUUID();
-        this.owner = owner;
-        this.originalText = originalText == null ? displayText : originalText;
         this.tabs = tabs == null ? new ArrayList<>() : tabs;
         formatChildren(width);
     }
 
     /**
-     * Reformat's the line breaks
+     * Reformat's the line breaks. The lines aren't wrapped until {@link #getLines()} is called, so messages that
+     * never get rendered never get wrapped.
      * @param width Width that the line breaks should be enforced
      */
     public void formatChildren(int width) {
-        this.lines = new ArrayList<>();
-        if (width == 0) {
-            this.lines.add(new AdvancedChatLine(this, displayText));
-        } else {
-            for (Text t : StyleFormatter.wrapText(MinecraftClient.getInstance().textRenderer, width, displayText)) {
-                this.lines.add(new AdvancedChatLine(this, t));
+        this.wrapWidth = width;
+        this.lines = null;
+        this.lineCount = -1;
+    }
+
+    /**
+     * Let's go of the wrapped lines. They're taken from {@link WrapCache} again if the message is rendered, the line
+     * count is kept.
+     */
+    public void release() {
+        if (this.lines != null) {
+            this.lineCount = this.lines.size();
+        }
+        this.lines = null;
+    }
+
+    /**
+     * Get's the wrapped lines, wrapping them if needed. Wrapping is shared through {@link WrapCache} with every
+     * message that has the same display text and width.
+     * @return Wrapped lines
+     */
+    public List<AdvancedChatLine> getLines() {
+        if (this.lines == null) {
+            WrapCache.Wrapped wrapped = WrapCache.getInstance().get(getDisplay(), wrapWidth);
+            List<AdvancedChatLine> newLines = new ArrayList<>(wrapped.getLines().size());
+            for (int i = 0; i < wrapped.getLines().size(); i++) {
+                newLines.add(new AdvancedChatLine(this, wrapped.getLines().get(i), wrapped.getWidths()[i]));
             }
+            this.lines = newLines;
+            this.lineCount = newLines.size();
         }
+        return this.lines;
     }
 
     /**
@@ -174,7 +363,7 @@ public class ChatMessage {
      * @return If it's similar
      */
     public boolean isSimilar(ChatMessage message) {
-        return message.getOriginalText().getString().equals(this.getOriginalText().getString());
+        return message.getOriginalString().equals(this.getOriginalString());
     }
 
     /**
@@ -182,7 +371,11 @@ public class ChatMessage {
      * @return Line count
      */
     public int getLineCount() {
-        return this.lines.size();
+        if (this.lineCount < 0) {
+            // Only the count is needed, so nothing is kept besides what's in the wrap cache
+            this.lineCount = this.lines != null ? this.lines.size() : WrapCache.getInstance().get(getDisplay(), wrapWidth).getLines().size();
+        }
+        return this.lineCount;
     }
 
 }
@@ -2,6 +2,7 @@ package io.github.darkkronicle.advancedchat.chat;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.ParseResults;
 import com.mojang.brigadier.StringReader;
@@ -17,6 +18,8 @@ import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.command.CommandSource;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -26,7 +29,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +44,11 @@ import java.util.regex.Pattern;
 public class ChatSuggestor {
     private static final Pattern SPACE_PATTERN = Pattern.compile("(\\s+)");
 
+    /**
+     * Executor shared by suggestors that shouldn't run on the render thread
+     */
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setNameFormat("AdvancedChat Suggestor %d").setDaemon(true).build());
+
     /**
      * Parsed command results
      */
@@ -61,6 +73,16 @@ public class ChatSuggestor {
     @Getter
     private List<AdvancedSuggestions> allSuggestions;
 
+    /**
+     * Futures of chat suggestions that are still being built
+     */
+    private final List<CompletableFuture<?>> pendingChat = new ArrayList<>();
+
+    /**
+     * Incremented every time chat suggestions are updated so that old results get dropped
+     */
+    private long chatRequest = 0;
+
     private final TextFieldWidget textField;
     private final MinecraftClient client;
 
@@ -103,6 +125,8 @@ public class ChatSuggestor {
      * @param after Runnable to run after suggestions have completed
      */
     public void updateCommandSuggestions(Runnable after) {
+        cancelChatSuggestions();
+        chatRequest++;
         allSuggestions = null;
         CommandDispatcher<CommandSource> commandDispatcher = client.player.networkHandler.getCommandDispatcher();
         pendingSuggestions = commandDispatcher.getCompletionSuggestions(this.parse, getCursorIndex()).thenApplyAsync(AdvancedSuggestions::fromSuggestions);
@@ -132,51 +156,105 @@ public class ChatSuggestor {
 
     /**
      * Update's suggestions specifically for chat (not command).
+     *
+     * Every active suggestor is asked for suggestions, and the results are merged on the client thread once they've
+     * all finished. Suggestions that are still being built for older text are cancelled, and a suggestor that takes
+     * longer than its time budget is skipped.
      */
     public void updateChatSuggestions() {
-        String startToCursor = textField.getText().substring(0, getCursorIndex());
+        cancelChatSuggestions();
+        long request = ++chatRequest;
+        String text = textField.getText();
+        int cursor = getCursorIndex();
+        String startToCursor = text.substring(0, cursor);
         int wordIndex = getLastWord(startToCursor);
-        ArrayList<AdvancedSuggestions> suggestions = new ArrayList<>();
+        String lastWord = startToCursor.substring(wordIndex);
+        StringRange wordRange = new StringRange(wordIndex, startToCursor.length());
+        List<CompletableFuture<Optional<List<AdvancedSuggestions>>>> whole = new ArrayList<>();
+        List<CompletableFuture<Optional<List<AdvancedSuggestion>>>> word = new ArrayList<>();
         for (ChatSuggestorRegistry.ChatSuggestorOption option : ChatSuggestorRegistry.getInstance().getAll()) {
             if (!option.isActive()) {
                 continue;
             }
             IMessageSuggestor suggestor = option.getOption();
-            Optional<List<AdvancedSuggestions>> suggestion = suggestor.suggest(textField.getText());
-            suggestion.ifPresent(suggestions::addAll);
+            whole.add(withBudget(suggestor.suggestAsync(text, EXECUTOR), suggestor));
+            word.add(withBudget(suggestor.suggestCurrentWordAsync(lastWord, wordRange, EXECUTOR), suggestor));
+        }
+        pendingChat.addAll(whole);
+        pendingChat.addAll(word);
+        CompletableFuture<Void> all = CompletableFuture.allOf(pendingChat.toArray(new CompletableFuture[0]));
+        if (all.isDone()) {
+            // Nothing had to wait, so don't wait a frame either
+            pendingSuggestions = CompletableFuture.completedFuture(publish(request, cursor, whole, word));
+        } else {
+            pendingSuggestions = all.thenApplyAsync(v -> publish(request, cursor, whole, word), client);
+        }
+    }
+
+    /**
+     * Cancels chat suggestions that haven't finished yet
+     */
+    private void cancelChatSuggestions() {
+        for (CompletableFuture<?> future : pendingChat) {
+            future.cancel(false);
+        }
+        pendingChat.clear();
+    }
+
+    /**
+     * Skips a suggestor's result if it takes too long or fails
+     */
+    private static <T> CompletableFuture<Optional<T>> withBudget(CompletableFuture<Optional<T>> future, IMessageSuggestor suggestor) {
+        return future.completeOnTimeout(Optional.empty(), suggestor.getTimeBudget(), TimeUnit.MILLISECONDS).exceptionally(e -> {
+            if (!(e instanceof CancellationException)) {
+                LogManager.getLogger().log(Level.ERROR, "[AdvancedChat] {}", "Suggestor " + suggestor.getClass().getSimpleName() + " failed", e);
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Merges finished chat suggestions. Runs on the client thread.
+     *
+     * @return Suggestions for the cursor
+     */
+    private AdvancedSuggestions publish(long request, int cursor, List<CompletableFuture<Optional<List<AdvancedSuggestions>>>> whole, List<CompletableFuture<Optional<List<AdvancedSuggestion>>>> word) {
+        if (request != chatRequest) {
+            // Text changed while these were being built
+            return AdvancedSuggestions.EMPTY;
+        }
+        pendingChat.clear();
+        ArrayList<AdvancedSuggestions> suggestions = new ArrayList<>();
+        for (CompletableFuture<Optional<List<AdvancedSuggestions>>> future : whole) {
+            future.join().ifPresent(suggestions::addAll);
+        }
+        List<AdvancedSuggestion> current = new ArrayList<>();
+        for (CompletableFuture<Optional<List<AdvancedSuggestion>>> future : word) {
+            future.join().ifPresent(current::addAll);
         }
         this.allSuggestions = suggestions;
-        this.pendingSuggestions = suggestMatching(wordIndex, startToCursor, suggestions);
+        return suggestMatching(cursor, current, suggestions);
     }
 
     /**
      * Build suggestions and suggest
      *
-     * @param start Start of input
-     * @param input Input
+     * @param cursor Cursor the suggestions were made for
+     * @param current Suggestions for the current word
      * @param other Other suggestions
-     * @return CompletableFuture of the suggestions
+     * @return The suggestions
      */
-    private CompletableFuture<AdvancedSuggestions> suggestMatching(int start, String input, List<AdvancedSuggestions> other) {
-        List<AdvancedSuggestion> newSuggestions = new ArrayList<>();
-        String lastWord = input.substring(start);
-        StringRange r = new StringRange(start, input.length());
-        for (ChatSuggestorRegistry.ChatSuggestorOption option : ChatSuggestorRegistry.getInstance().getAll()) {
-            if (!option.isActive()) {
-                continue;
-            }
-            Optional<List<AdvancedSuggestion>> s = option.getOption().suggestCurrentWord(lastWord, r);
-            s.ifPresent(newSuggestions::addAll);
-        }
+    private AdvancedSuggestions suggestMatching(int cursor, List<AdvancedSuggestion> current, List<AdvancedSuggestions> other) {
+        List<AdvancedSuggestion> newSuggestions = new ArrayList<>(current);
 
         for (AdvancedSuggestions suggestions : other) {
-            if (suggestions.getRange().getStart() <= textField.getCursor() && suggestions.getRange().getEnd() >= textField.getCursor()) {
+            if (suggestions.getRange().getStart() <= cursor && suggestions.getRange().getEnd() >= cursor) {
                 newSuggestions.addAll(suggestions.getSuggestions());
             }
         }
 
         if (newSuggestions.size() <= 0) {
-            return AdvancedSuggestions.empty();
+            return AdvancedSuggestions.EMPTY;
         }
 
         int min = -1;
@@ -190,9 +268,7 @@ public class ChatSuggestor {
         }
 
         range = new StringRange(min, max);
-        AdvancedSuggestions suggested = new AdvancedSuggestions(range, newSuggestions);
-
-        return CompletableFuture.completedFuture(suggested);
+        return new AdvancedSuggestions(range, newSuggestions);
     }
 
     public void runAfterDone(Runnable runnable) {
@@ -239,7 +315,8 @@ public class ChatSuggestor {
             // Map
             for (Map.Entry<AdvancedSuggestion, String> entry : names.entrySet()) {
                 // Check if it appears more than once (then we keep it)
-                if (Collections.frequency(names.values(), entry.getValue()) >= 2) {
+                if (entry.getValue().equals(entry.getKey().getText()) || Collections.frequency(names.values(), entry.getValue()) >= 2) {
+                    // Nothing to remove, or it appears more than once
                     newSuggestions.add(entry.getKey());
                 } else {
                     newSuggestions.add(new AdvancedSuggestion(entry.getKey().getRange(), entry.getValue(), entry.getKey().getRender(), entry.getKey().getTooltip()));
@@ -0,0 +1,89 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
+import io.github.darkkronicle.advancedchat.util.ColorUtil;
+import lombok.Value;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.network.PlayerListEntry;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Client state that a message is processed with.
+ *
+ * It's captured on the client thread when the message comes in, so a message that's processed on another thread never
+ * touches the player list or the config while the client thread is changing them.
+ */
+@Environment(EnvType.CLIENT)
+@Value
+public class MessageContext {
+
+    private final static ThreadLocal<MessageContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Players that were in the tab list. Empty if not connected.
+     */
+    List<PlayerListEntry> players;
+
+    /**
+     * Regex used to find the owner of a message
+     */
+    String ownerRegex;
+
+    boolean showTime;
+
+    String timeFormat;
+
+    String timeTextFormat;
+
+    ColorUtil.SimpleColor timeColor;
+
+    /**
+     * Captures the current state. This has to be called on the client thread.
+     *
+     * @return New context
+     */
+    public static MessageContext capture() {
+        ClientPlayNetworkHandler handler = MinecraftClient.getInstance().getNetworkHandler();
+        List<PlayerListEntry> players = handler == null ? Collections.emptyList() : new ArrayList<>(handler.getPlayerList());
+        return new MessageContext(
+                players,
+                ConfigStorage.General.MESSAGE_OWNER_REGEX.config.getStringValue(),
+                ConfigStorage.ChatScreen.SHOW_TIME.config.getBooleanValue(),
+                ConfigStorage.General.TIME_FORMAT.config.getStringValue(),
+                ConfigStorage.General.TIME_TEXT_FORMAT.config.getStringValue(),
+                ConfigStorage.General.TIME_COLOR.config.getSimpleColor()
+        );
+    }
+
+    /**
+     * Get's the context of the message that's being processed on this thread. If there isn't one, it's captured now,
+     * which is only safe on the client thread.
+     *
+     * @return Context of the current message
+     */
+    public static MessageContext get() {
+        MessageContext context = CURRENT.get();
+        return context == null ? capture() : context;
+    }
+
+    /**
+     * Sets the context of the message that's being processed on this thread
+     *
+     * @param context Context, or null once the message is done
+     */
+    static void set(@Nullable MessageContext context) {
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+    }
+
+}
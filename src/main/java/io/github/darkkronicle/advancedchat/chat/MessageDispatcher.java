@@ -1,5 +1,6 @@
 package io.github.darkkronicle.advancedchat.chat;
 
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.interfaces.IMessageFilter;
 import io.github.darkkronicle.advancedchat.util.FluidText;
@@ -7,6 +8,7 @@ import io.github.darkkronicle.advancedchat.util.SearchResult;
 import io.github.darkkronicle.advancedchat.util.SearchUtils;
 import io.github.darkkronicle.advancedchat.util.StringMatch;
 import io.github.darkkronicle.advancedchat.util.StyleFormatter;
+import io.github.darkkronicle.advancedchat.util.SyncTaskQueue;
 import io.github.darkkronicle.advancedchat.interfaces.IMessageProcessor;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -18,6 +20,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class to handle chat events.
@@ -31,6 +36,22 @@ public class MessageDispatcher {
     private ArrayList<IMessageProcessor> processors = new ArrayList<>();
     private ArrayList<IMessageFilter> preFilters = new ArrayList<>();
 
+    /**
+     * Processes messages off of the client thread when {@link ConfigStorage.General#ASYNC_PROCESSING} is on.
+     * There is only one thread so messages stay in order.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AdvancedChat Message Processor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Amount of messages that are queued or being processed by {@link #executor} and haven't finished on the
+     * client thread yet
+     */
+    private final AtomicInteger pending = new AtomicInteger(0);
+
     public static MessageDispatcher getInstance() {
         return INSTANCE;
     }
@@ -78,9 +99,36 @@ public class MessageDispatcher {
      * Note: It is not recommended to call this method to force add new text. Typically, grabbing the {@link net.minecraft.client.gui.hud.ChatHud} from
      * {@link net.minecraft.client.MinecraftClient} and calling addText is a safer way.
      *
+     * When {@link ConfigStorage.General#ASYNC_PROCESSING} is enabled the message is filtered on another thread and only
+     * added to chat on the client thread. Anything it needs from the client is captured in a {@link MessageContext}
+     * first.
+     *
      * @param text Text that is received
      */
     public void handleText(Text text) {
+        // If there are still messages being processed they have to finish first to keep the order
+        if (ConfigStorage.General.ASYNC_PROCESSING.config.getBooleanValue() || pending.get() > 0) {
+            pending.incrementAndGet();
+            // The worker can't look at the client's state while it's changing
+            MessageContext context = MessageContext.capture();
+            executor.execute(() -> {
+                MessageContext.set(context);
+                try {
+                    dispatch(text);
+                } catch (Exception e) {
+                    LogManager.getLogger().error("[AdvancedChat] Couldn't process message {}", text.getString(), e);
+                } finally {
+                    MessageContext.set(null);
+                    // Queued after anything this message handed to the client thread
+                    SyncTaskQueue.getInstance().add(0, pending::decrementAndGet);
+                }
+            });
+            return;
+        }
+        dispatch(text);
+    }
+
+    private void dispatch(Text text) {
         FluidText fluidText = new FluidText(text);
         fluidText = preFilter(fluidText);
         if (fluidText.getString().length() == 0) {
@@ -0,0 +1,76 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import io.github.darkkronicle.advancedchat.util.ColorUtil;
+import io.github.darkkronicle.advancedchat.util.PackedText;
+import lombok.Value;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The parts of a chat message that never change.
+ *
+ * The chat windows and the chat log each have their own {@link ChatMessage} for the tabs, stacks and wrapping of
+ * where it's shown, but they all share one payload.
+ */
+@Environment(EnvType.CLIENT)
+@Value
+public class MessagePayload {
+
+    private final static AtomicLong NEXT_ID = new AtomicLong();
+
+    /**
+     * Unique ID of the message. Goes up by one for each message that's made.
+     */
+    long uniqueId;
+
+    /**
+     * ID of the message.
+     */
+    int id;
+
+    /**
+     * The time the message was created in epoch milliseconds.
+     */
+    long time;
+
+    /**
+     * The text that will be displayed on render.
+     */
+    PackedText display;
+
+    /**
+     * The unmodified original text. Used to keep time stamp off of. Same as {@link #display} if they don't differ.
+     */
+    PackedText original;
+
+    /**
+     * If {@link #display} already has the time added to it.
+     */
+    boolean timestamped;
+
+    /**
+     * The background color of the message.
+     */
+    ColorUtil.SimpleColor background;
+
+    /**
+     * The owner of the message.
+     */
+    @Nullable
+    MessageOwner owner;
+
+    public MessagePayload(int id, long time, PackedText display, PackedText original, boolean timestamped, ColorUtil.SimpleColor background, @Nullable MessageOwner owner) {
+        this.uniqueId = NEXT_ID.getAndIncrement();
+        this.id = id;
+        this.time = time;
+        this.display = display;
+        this.original = original == null ? display : original;
+        this.timestamped = timestamped;
+        this.background = background;
+        this.owner = owner;
+    }
+
+}
@@ -0,0 +1,299 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import fi.dy.masa.malilib.util.FileUtils;
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
+import org.apache.logging.log4j.LogManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An append only chat log that is stored on disk for each server under config/advancedchat/logs.
+ *
+ * The log is split into {@link ChatLogSegment}'s of up to {@link #SEGMENT_SIZE} bytes. Messages are read back through
+ * memory mapped segments, so paging through the log only decodes the messages that are looked at.
+ *
+ * Opening a server's segments and writing to them happens on a writer thread. Writes are buffered until the writer has
+ * nothing else queued, so a burst of messages is written at once.
+ */
+@Environment(EnvType.CLIENT)
+public class PersistentChatLog {
+
+    private final static PersistentChatLog INSTANCE = new PersistentChatLog();
+
+    /**
+     * Size that a segment can get to before a new one is started
+     */
+    public final static int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final static int CACHE_SIZE = 512;
+
+    public static PersistentChatLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Server that the segments are for
+     */
+    private String server = null;
+
+    private final List<ChatLogSegment> segments = new ArrayList<>();
+
+    private long total = 0;
+
+    /**
+     * If something went wrong with the files. Nothing else is written until the server changes.
+     */
+    private boolean failed = false;
+
+    /**
+     * Recently decoded messages by their index
+     */
+    private final LinkedHashMap<Long, ChatLogMessage> decoded = new LinkedHashMap<Long, ChatLogMessage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ChatLogMessage> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "AdvancedChat Chat Log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PersistentChatLog() {
+        // Messages that are still queued or buffered have to get written when the game closes
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "AdvancedChat Chat Log Flush"));
+    }
+
+    public static boolean isEnabled() {
+        return ConfigStorage.ChatLog.PERSIST.config.getBooleanValue();
+    }
+
+    /**
+     * Writes a message to the log of the current server.
+     *
+     * @param message Message to write
+     */
+    public void append(ChatLogMessage message) {
+        if (!isEnabled()) {
+            return;
+        }
+        String name = getServerName();
+        byte[] record = ChatLogCodec.encode(message, message.getTime());
+        writer.execute(() -> write(name, record));
+    }
+
+    private void write(String name, byte[] record) {
+        if (!open(name)) {
+            return;
+        }
+        synchronized (this) {
+            if (!name.equals(server) || failed) {
+                return;
+            }
+            writeRecord(record);
+        }
+    }
+
+    private void writeRecord(byte[] record) {
+        try {
+            ChatLogSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last == null || (last.getSize() > 0 && last.getSize() + record.length > SEGMENT_SIZE)) {
+                if (last != null) {
+                    last.close();
+                }
+                last = new ChatLogSegment(getDirectory(server).resolve(String.format("%08d.seg", segments.size())));
+                segments.add(last);
+            }
+            last.append(record);
+            total++;
+            if (writer.getQueue().isEmpty()) {
+                last.flush();
+            }
+        } catch (IOException e) {
+            failed = true;
+            LogManager.getLogger().error("[AdvancedChat] Couldn't write to the chat log for " + server, e);
+        }
+    }
+
+    /**
+     * Get's the messages that are stored for the current server. If the server's log isn't open yet it's opened in
+     * the background, and the view is empty until it's done.
+     *
+     * @return View of the messages, oldest first. Messages are decoded when they're accessed.
+     */
+    public synchronized List<ChatLogMessage> getMessages() {
+        String name = getServerName();
+        if (!name.equals(server)) {
+            writer.execute(() -> open(name));
+        }
+        return new Messages(name);
+    }
+
+    private synchronized int size(String name) {
+        if (!name.equals(server)) {
+            return 0;
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    private synchronized ChatLogMessage get(String name, long index) {
+        if (!name.equals(server)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+        }
+        ChatLogMessage message = decoded.get(index);
+        if (message != null) {
+            return message;
+        }
+        long start = 0;
+        for (ChatLogSegment segment : segments) {
+            if (index < start + segment.getCount()) {
+                try {
+                    message = segment.read((int) (index - start));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Couldn't read the chat log for " + server, e);
+                }
+                decoded.put(index, message);
+                return message;
+            }
+            start += segment.getCount();
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + total);
+    }
+
+    /**
+     * Opens the segments for a server if they aren't open already. Only called on the writer thread. The files are
+     * read without holding the lock, so reading the log isn't blocked while they're scanned.
+     *
+     * @param name Server name
+     * @return If the log can be used
+     */
+    private boolean open(String name) {
+        synchronized (this) {
+            if (name.equals(server)) {
+                return !failed;
+            }
+        }
+        List<ChatLogSegment> loaded = new ArrayList<>();
+        boolean opened = true;
+        try {
+            Path directory = getDirectory(name);
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                ChatLogSegment segment = new ChatLogSegment(file);
+                segment.load();
+                loaded.add(segment);
+            }
+        } catch (IOException e) {
+            opened = false;
+            LogManager.getLogger().error("[AdvancedChat] Couldn't open the chat log for " + name, e);
+        }
+        synchronized (this) {
+            close();
+            server = name;
+            failed = !opened;
+            segments.addAll(loaded);
+            for (ChatLogSegment segment : loaded) {
+                total += segment.getCount();
+            }
+        }
+        return opened;
+    }
+
+    private void close() {
+        for (ChatLogSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                LogManager.getLogger().error("[AdvancedChat] Couldn't write to the chat log for " + server, e);
+            }
+        }
+        segments.clear();
+        decoded.clear();
+        total = 0;
+        failed = false;
+        server = null;
+    }
+
+    /**
+     * Writes everything that's queued and closes the segments
+     */
+    private void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            close();
+        }
+    }
+
+    private static Path getDirectory(String name) {
+        return FileUtils.getConfigDirectory().toPath().resolve("advancedchat").resolve("logs").resolve(name);
+    }
+
+    /**
+     * Get's a file safe name for the server that's currently being played on.
+     *
+     * @return Server name
+     */
+    private static String getServerName() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        String name;
+        if (client.getCurrentServerEntry() != null) {
+            name = client.getCurrentServerEntry().address;
+        } else if (client.isInSingleplayer() && client.getServer() != null) {
+            name = "singleplayer_" + client.getServer().getSaveProperties().getLevelName();
+        } else {
+            name = "unknown";
+        }
+        return name.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+
+    private class Messages extends AbstractList<ChatLogMessage> implements RandomAccess {
+
+        /**
+         * Server the view is for. Empty if a different server is open.
+         */
+        private final String name;
+
+        private Messages(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public ChatLogMessage get(int index) {
+            return PersistentChatLog.this.get(name, index);
+        }
+
+        @Override
+        public int size() {
+            return PersistentChatLog.this.size(name);
+        }
+
+    }
+
+}
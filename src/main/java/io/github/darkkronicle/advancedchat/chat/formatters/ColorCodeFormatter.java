@@ -18,6 +18,8 @@ import java.util.Optional;
 @Environment(EnvType.CLIENT)
 public class ColorCodeFormatter implements IMessageFormatter {
 
+    private static final String CODES = "0123456789abcdefklmnor";
+
     @Override
     public Optional<FluidText> format(FluidText text, @Nullable ParseResults<CommandSource> parse) {
         if (parse != null) {
@@ -47,4 +49,19 @@ public class ColorCodeFormatter implements IMessageFormatter {
         return Optional.of(formatted);
     }
 
+    @Override
+    public int getRestartIndex(String text, int changed, @Nullable ParseResults<CommandSource> parse) {
+        if (parse != null) {
+            return changed;
+        }
+        // Styles carry on until the end, so everything from the first code has to be redone
+        int end = Math.min(changed, text.length() - 1);
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) == '&' && CODES.indexOf(Character.toLowerCase(text.charAt(i + 1))) >= 0) {
+                return i;
+            }
+        }
+        return changed;
+    }
+
 }
@@ -9,6 +9,7 @@ import io.github.darkkronicle.advancedchat.util.FluidText;
 import io.github.darkkronicle.advancedchat.util.RawText;
 import io.github.darkkronicle.advancedchat.util.SearchUtils;
 import io.github.darkkronicle.advancedchat.util.StringMatch;
+import io.github.darkkronicle.advancedchat.util.StylePool;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.command.CommandSource;
@@ -56,7 +57,7 @@ public class CommandColorer implements IMessageFormatter {
             }
             final int thisCol = color;
             replace.put(match, (current, match1) -> {
-                if (current.getStyle().equals(Style.EMPTY)) {
+                if (StylePool.getInstance().equals(current.getStyle(), Style.EMPTY)) {
                     return new FluidText(RawText.withColor(match1.match, COLORS[thisCol]));
                 }
                 return new FluidText(new RawText(match1.match, current.getStyle()));
@@ -67,7 +68,7 @@ public class CommandColorer implements IMessageFormatter {
             lowest = text.getString().length();
         }
         replace.put(new StringMatch(text.getString().substring(0, lowest), 0, lowest), (current, match) -> {
-            if (current.getStyle().equals(Style.EMPTY)) {
+            if (StylePool.getInstance().equals(current.getStyle(), Style.EMPTY)) {
                 return new FluidText(RawText.withColor(match.match, INFO));
             }
             return new FluidText(new RawText(match.match, current.getStyle()));
@@ -76,5 +77,11 @@ public class CommandColorer implements IMessageFormatter {
         return Optional.of(text);
     }
 
+    @Override
+    public int getRestartIndex(String text, int changed, @Nullable ParseResults<CommandSource> parse) {
+        // Commands get colored from the parse, which is for the whole text
+        return parse == null ? changed : 0;
+    }
+
 
 }
@@ -75,6 +75,16 @@ public class JSONFormatter implements IMessageFormatter {
         return Optional.of(text);
     }
 
+    @Override
+    public int getRestartIndex(String text, int changed, @Nullable ParseResults<CommandSource> parse) {
+        // JSON goes from the first brace to the last one
+        int brace = text.indexOf('{');
+        if (brace >= 0 && brace < changed) {
+            return brace;
+        }
+        return changed;
+    }
+
     public FluidText colorJson(String string) {
 
         FluidText text = new FluidText();
@@ -1,59 +1,175 @@
 package io.github.darkkronicle.advancedchat.chat.suggestors;
 
 import com.mojang.brigadier.context.StringRange;
-import com.mojang.brigadier.suggestion.Suggestion;
-import com.mojang.brigadier.suggestion.Suggestions;
 import io.github.darkkronicle.advancedchat.chat.AdvancedSuggestion;
 import io.github.darkkronicle.advancedchat.chat.AdvancedSuggestions;
-import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.interfaces.IMessageSuggestor;
-import io.github.darkkronicle.advancedchat.util.SearchUtils;
-import io.github.darkkronicle.advancedchat.util.StringMatch;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import org.mariuszgromada.math.mxparser.Expression;
+import org.mariuszgromada.math.mxparser.mXparser;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Calculates expressions in brackets. [1 + 1] will suggest 2.0.
+ *
+ * Results are remembered for each expression so retyping the rest of the message doesn't calculate anything again.
+ * Expressions are calculated on their own thread, and one that takes longer than {@link #TIME_LIMIT} is cancelled and
+ * suggests NaN. Those aren't remembered, since it may be quicker the next time.
+ */
 @Environment(EnvType.CLIENT)
 public class CalculatorSuggestor implements IMessageSuggestor {
 
-    private static final String BRACKET_REGEX = "\\[[^\\[\\]]*\\]";
     public static final String NAN = "NaN";
 
+    /**
+     * Milliseconds an expression can take to calculate
+     */
+    public static final long TIME_LIMIT = 200;
+
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * Results by expression
+     */
+    private final LinkedHashMap<String, String> results = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final ExecutorService calculator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AdvancedChat Calculator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Calculation that took too long. mXparser's cancel flag is shared, so it can't be reset and nothing else is
+     * calculated until this has stopped.
+     */
+    private Calculation cancelled = null;
+
+    private static class Calculation implements Callable<String> {
+
+        private final String expression;
+
+        private volatile boolean finished = false;
+
+        private Calculation(String expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        public String call() {
+            try {
+                return evaluate(expression);
+            } finally {
+                finished = true;
+            }
+        }
+
+    }
+
     @Override
-    public Optional<List<AdvancedSuggestions>> suggest(String text) {
+    public CompletableFuture<Optional<List<AdvancedSuggestions>>> suggestAsync(String text, Executor executor) {
         if (!text.contains("[") || !text.contains("]")) {
-            return Optional.empty();
+            return CompletableFuture.completedFuture(Optional.empty());
         }
-        List<StringMatch> matches = SearchUtils.findMatches(text, BRACKET_REGEX, Filter.FindType.REGEX).orElse(null);
-        if (matches == null) {
-            return Optional.empty();
-        }
-        int last = -1;
+        // Expressions can take a while to calculate
+        return CompletableFuture.supplyAsync(() -> suggest(text), executor);
+    }
+
+    @Override
+    public Optional<List<AdvancedSuggestions>> suggest(String text) {
         ArrayList<AdvancedSuggestions> suggest = new ArrayList<>();
-        for (StringMatch m : matches) {
-            if (m.start < last || m.end - m.start < 1) {
-                // Don't want overlapping matches (just in case) or too small
-                continue;
+        int length = text.length();
+        int start = text.indexOf('[');
+        while (start >= 0) {
+            int end = start + 1;
+            while (end < length && text.charAt(end) != '[' && text.charAt(end) != ']') {
+                end++;
+            }
+            if (end >= length) {
+                break;
             }
-            last = m.end;
-            String string = m.match.substring(1, m.match.length() - 1);
-            Expression expression = new Expression(string);
-            double val = expression.calculate();
-            String message = NAN;
-            if (!Double.isNaN(val)) {
-                message = String.valueOf(val);
+            if (text.charAt(end) == '[') {
+                // Only the innermost brackets are calculated
+                start = end;
+                continue;
             }
-            StringRange range = new StringRange(m.start, m.end);
+            String message = calculate(text.substring(start + 1, end));
+            StringRange range = new StringRange(start, end + 1);
             suggest.add(new AdvancedSuggestions(range, new ArrayList<>(Collections.singleton(new AdvancedSuggestion(range, message)))));
+            start = text.indexOf('[', end + 1);
         }
         if (suggest.isEmpty()) {
             return Optional.empty();
         }
         return Optional.of(suggest);
     }
+
+    /**
+     * Calculates an expression, or get's the result from last time.
+     *
+     * @param expression Expression without brackets
+     * @return Result, or {@link #NAN} if it isn't a number or took too long
+     */
+    private synchronized String calculate(String expression) {
+        String result = results.get(expression);
+        if (result != null) {
+            return result;
+        }
+        if (cancelled != null) {
+            if (!cancelled.finished) {
+                // Still stopping
+                return NAN;
+            }
+            cancelled = null;
+        }
+        // Anything that was cancelled has stopped, so the flag can be reset
+        mXparser.resetCancelCurrentCalculationFlag();
+        Calculation calculation = new Calculation(expression);
+        Future<String> future = calculator.submit(calculation);
+        try {
+            result = future.get(TIME_LIMIT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The calculation sees the flag and stops, even if it hasn't started yet
+            mXparser.cancelCurrentCalculation();
+            cancelled = calculation;
+            return NAN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return NAN;
+        } catch (ExecutionException e) {
+            result = NAN;
+        }
+        results.put(expression, result);
+        return result;
+    }
+
+    private static String evaluate(String expression) {
+        double val = new Expression(expression).calculate();
+        if (Double.isNaN(val)) {
+            return NAN;
+        }
+        return String.valueOf(val);
+    }
+
 }
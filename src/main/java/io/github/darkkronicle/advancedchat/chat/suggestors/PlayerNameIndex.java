@@ -0,0 +1,163 @@
+package io.github.darkkronicle.advancedchat.chat.suggestors;
+
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
+import io.github.darkkronicle.advancedchat.config.Filter;
+import io.github.darkkronicle.advancedchat.util.PrefixTrie;
+import io.github.darkkronicle.advancedchat.util.SearchUtils;
+import io.github.darkkronicle.advancedchat.util.StringMatch;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.network.PlayerListEntry;
+import net.minecraft.network.packet.s2c.play.PlayerListS2CPacket;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Names of the players in the tab list, kept in a {@link PrefixTrie} so completing a name doesn't go through every
+ * player.
+ *
+ * The index is updated from tab list packets as players are added, removed, or have their display name changed. The
+ * owner regex is only run on a display name when it changes. Everything is rebuilt when the server or the name
+ * settings change.
+ */
+@Environment(EnvType.CLIENT)
+public class PlayerNameIndex {
+
+    private final static PlayerNameIndex INSTANCE = new PlayerNameIndex();
+
+    public static PlayerNameIndex getInstance() {
+        return INSTANCE;
+    }
+
+    private final PrefixTrie<String> names = new PrefixTrie<>();
+
+    /**
+     * Name that's in the trie for each player
+     */
+    private final Map<UUID, String> players = new HashMap<>();
+
+    /**
+     * Connection the index was built for
+     */
+    private WeakReference<ClientPlayNetworkHandler> handler = new WeakReference<>(null);
+
+    private boolean prune = false;
+    private String regex = null;
+
+    private PlayerNameIndex() {
+
+    }
+
+    /**
+     * Get's the names that start with a prefix, ignoring case.
+     *
+     * @param prefix Start of the name
+     * @return Matching names
+     */
+    public List<String> getNames(String prefix) {
+        ClientPlayNetworkHandler current = MinecraftClient.getInstance().getNetworkHandler();
+        if (current == null) {
+            clear();
+            return names.get(prefix);
+        }
+        boolean prune = ConfigStorage.ChatSuggestor.PRUNE_PLAYER_SUGGESTIONS.config.getBooleanValue();
+        String regex = ConfigStorage.General.MESSAGE_OWNER_REGEX.config.getStringValue();
+        if (current != handler.get() || prune != this.prune || !regex.equals(this.regex)) {
+            rebuild(current, prune, regex);
+        }
+        return names.get(prefix);
+    }
+
+    /**
+     * Updates the index from a tab list packet. Called after the packet has been applied.
+     *
+     * @param handler Connection the packet was for
+     * @param packet Tab list packet
+     */
+    public void onPlayerList(ClientPlayNetworkHandler handler, PlayerListS2CPacket packet) {
+        if (handler != this.handler.get()) {
+            // Not built yet, the whole list will get read when it's needed
+            return;
+        }
+        switch (packet.getAction()) {
+            case ADD_PLAYER:
+            case UPDATE_DISPLAY_NAME:
+                for (PlayerListS2CPacket.Entry entry : packet.getEntries()) {
+                    update(handler, entry.getProfile().getId());
+                }
+                break;
+            case REMOVE_PLAYER:
+                for (PlayerListS2CPacket.Entry entry : packet.getEntries()) {
+                    remove(entry.getProfile().getId());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void rebuild(ClientPlayNetworkHandler handler, boolean prune, String regex) {
+        clear();
+        this.handler = new WeakReference<>(handler);
+        this.prune = prune;
+        this.regex = regex;
+        for (PlayerListEntry entry : handler.getPlayerList()) {
+            add(entry);
+        }
+    }
+
+    private void clear() {
+        names.clear();
+        players.clear();
+        handler = new WeakReference<>(null);
+    }
+
+    private void update(ClientPlayNetworkHandler handler, UUID id) {
+        remove(id);
+        PlayerListEntry entry = handler.getPlayerListEntry(id);
+        if (entry != null) {
+            add(entry);
+        }
+    }
+
+    private void add(PlayerListEntry entry) {
+        String name = getName(entry);
+        if (name != null) {
+            players.put(entry.getProfile().getId(), name);
+            names.put(name, name);
+        }
+    }
+
+    private void remove(UUID id) {
+        String name = players.remove(id);
+        if (name != null) {
+            names.remove(name, name);
+        }
+    }
+
+    /**
+     * Get's the name to suggest for a player
+     *
+     * @param entry Tab list entry
+     * @return Name, or null if it's blank
+     */
+    private String getName(PlayerListEntry entry) {
+        if (prune && entry.getDisplayName() != null) {
+            // Try to get their actual name (without prefix)
+            String display = entry.getDisplayName().getString();
+            StringMatch match = SearchUtils.getMatch(display, regex, Filter.FindType.REGEX).orElse(null);
+            String name = match != null ? match.match : display;
+            // Check to make sure it isn't blank
+            return name.equals("") ? null : name;
+        }
+        // Player name is never null. But on servers it can be populated with fake players.
+        return entry.getProfile().getName();
+    }
+
+}
@@ -12,14 +12,17 @@ import fi.dy.masa.malilib.util.StringUtils;
 import io.github.darkkronicle.advancedchat.AdvancedChat;
 import io.github.darkkronicle.advancedchat.chat.AdvancedSuggestion;
 import io.github.darkkronicle.advancedchat.chat.AdvancedSuggestions;
+import io.github.darkkronicle.advancedchat.chat.registry.ChatSuggestorRegistry;
 import io.github.darkkronicle.advancedchat.chat.suggestors.gui.ShortcutEntryListWidget;
 import io.github.darkkronicle.advancedchat.chat.suggestors.gui.ShortcutListWidget;
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.config.gui.GuiFilterManager;
 import io.github.darkkronicle.advancedchat.interfaces.IJsonApplier;
 import io.github.darkkronicle.advancedchat.interfaces.IMessageSuggestor;
 import io.github.darkkronicle.advancedchat.interfaces.IScreenSupplier;
 import io.github.darkkronicle.advancedchat.util.FluidText;
+import io.github.darkkronicle.advancedchat.util.PrefixTrie;
 import io.github.darkkronicle.advancedchat.util.RawText;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -34,8 +37,12 @@ import net.minecraft.text.Style;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Random;
 import java.util.function.Supplier;
 
@@ -49,6 +56,12 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
         private String name;
         private String replace;
 
+        /**
+         * How many times the shortcut has been completed
+         */
+        @EqualsAndHashCode.Exclude
+        private int uses = 0;
+
         public Shortcut(String name, String replace) {
             this.name = name.toLowerCase();
             this.replace = replace;
@@ -59,13 +72,20 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
                 return null;
             }
             JsonObject obj = element.getAsJsonObject();
-            return new Shortcut(obj.get("name").getAsString(), obj.get("replace").getAsString());
+            Shortcut shortcut = new Shortcut(obj.get("name").getAsString(), obj.get("replace").getAsString());
+            if (obj.has("uses")) {
+                shortcut.setUses(obj.get("uses").getAsInt());
+            }
+            return shortcut;
         }
 
         public JsonObject toJsonElement() {
             JsonObject obj = new JsonObject();
             obj.addProperty("name", name);
             obj.addProperty("replace", replace);
+            if (uses > 0) {
+                obj.addProperty("uses", uses);
+            }
             return obj;
         }
     }
@@ -74,9 +94,36 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
         return new Shortcut(AdvancedChat.getRandomString(), AdvancedChat.getRandomString());
     }
 
+    /**
+     * Most suggestions that are made for one token
+     */
+    public final static int LIMIT = 100;
+
+    /**
+     * Most used first, then by name
+     */
+    private final static Comparator<Shortcut> RANKING = Comparator.comparingInt(Shortcut::getUses).reversed().thenComparing(Shortcut::getName);
+
+    private final static int CACHE_SIZE = 64;
+
     @Getter
     private List<Shortcut> shortcuts;
 
+    /**
+     * Shortcuts by name. Rebuilt whenever the shortcuts change.
+     */
+    private final PrefixTrie<Shortcut> trie = new PrefixTrie<>();
+
+    /**
+     * Ranked shortcuts for recently typed tokens
+     */
+    private final LinkedHashMap<String, List<Shortcut>> found = new LinkedHashMap<String, List<Shortcut>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Shortcut>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     public ShortcutSuggestor() {
         shortcuts = new ArrayList<>();
 
@@ -84,14 +131,29 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
 
     public void clearShortcuts() {
         shortcuts.clear();
+        rebuild();
     }
 
     public void addShortcut(Shortcut shortcut) {
         shortcuts.add(shortcut);
+        rebuild();
     }
 
     public boolean removeShortcut(Shortcut entry) {
-        return this.shortcuts.remove(entry);
+        boolean removed = this.shortcuts.remove(entry);
+        rebuild();
+        return removed;
+    }
+
+    /**
+     * Rebuilds the trie. Has to be called if a shortcut's name is changed.
+     */
+    public void rebuild() {
+        trie.clear();
+        for (Shortcut shortcut : shortcuts) {
+            trie.put(shortcut.getName(), shortcut);
+        }
+        found.clear();
     }
 
     @Override
@@ -134,16 +196,61 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
 
     private List<AdvancedSuggestion> getSuggestions(String current, StringRange range) {
         ArrayList<AdvancedSuggestion> suggestions = new ArrayList<>();
-        for (Shortcut shortcut : shortcuts) {
-            if (current.length() == 0 || shortcut.name.toLowerCase().startsWith(current.toLowerCase())) {
-                FluidText text = new FluidText();
-                text.append(new RawText(shortcut.name, Style.EMPTY));
-                suggestions.add(new AdvancedSuggestion(range, shortcut.replace, text, new RawText(shortcut.replace, Style.EMPTY)));
-            }
+        for (Shortcut shortcut : find(current)) {
+            FluidText text = new FluidText();
+            text.append(new RawText(shortcut.name, Style.EMPTY));
+            suggestions.add(new ShortcutSuggestion(range, shortcut, text));
         }
         return suggestions;
     }
 
+    /**
+     * Finds the most used shortcuts that start with a token, up to {@link #LIMIT}
+     *
+     * @param current Token without the :
+     * @return Ranked shortcuts
+     */
+    private List<Shortcut> find(String current) {
+        List<Shortcut> ranked = found.get(current);
+        if (ranked != null) {
+            return ranked;
+        }
+        // Worst is at the head so it's the one that gets pushed out
+        PriorityQueue<Shortcut> best = new PriorityQueue<>(RANKING.reversed());
+        trie.forEach(current, shortcut -> {
+            best.add(shortcut);
+            if (best.size() > LIMIT) {
+                best.poll();
+            }
+        });
+        ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        found.put(current, ranked);
+        return ranked;
+    }
+
+    /**
+     * Suggestion that counts how often its shortcut gets used
+     */
+    private class ShortcutSuggestion extends AdvancedSuggestion {
+
+        private final Shortcut shortcut;
+
+        public ShortcutSuggestion(StringRange range, Shortcut shortcut, FluidText render) {
+            super(range, shortcut.getReplace(), render, new RawText(shortcut.getReplace(), Style.EMPTY));
+            this.shortcut = shortcut;
+        }
+
+        @Override
+        public void onComplete() {
+            shortcut.setUses(shortcut.getUses() + 1);
+            ConfigStorage.markDirty(ChatSuggestorRegistry.NAME);
+            // Rankings changed
+            found.clear();
+        }
+
+    }
+
     @Override
     public JsonObject save() {
         JsonObject obj = new JsonObject();
@@ -181,6 +288,8 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
         shortcuts.add(new Shortcut("success", "(•̀ᴗ•́)و ̑̑"));
         shortcuts.add(new Shortcut("dead", "(×_×;)"));
         shortcuts.add(new Shortcut("shades", "(⌐■_■)"));
+        ConfigStorage.markDirty(ChatSuggestorRegistry.NAME);
+        rebuild();
     }
 
     @Override
@@ -205,7 +314,9 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
         }
         if (shortcuts.size() == 0) {
             loadDefaultShortcuts();
+            return;
         }
+        rebuild();
     }
 
     @Override
@@ -232,6 +343,13 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
             this.setParent(parent);
         }
 
+        @Override
+        public void removed() {
+            // Whatever was edited here has to be in the next save
+            ConfigStorage.markDirty(ChatSuggestorRegistry.NAME);
+            super.removed();
+        }
+
         protected int addButton(int x, int y, ButtonListener.Type type, boolean rightAlign) {
             ButtonGeneric button = new ButtonGeneric(x, y, -1, rightAlign, type.getDisplayName());
             this.addButton(button, new ButtonListener(type, this));
@@ -262,7 +380,7 @@ public class ShortcutSuggestor implements IMessageSuggestor, IJsonApplier, IScre
                     break;
                 }
             }
-            shortcuts.add(cut);
+            ShortcutSuggestor.this.addShortcut(cut);
             getListWidget().refreshEntries();
         }
 
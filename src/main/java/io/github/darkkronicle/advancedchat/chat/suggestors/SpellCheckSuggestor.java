@@ -1,36 +1,119 @@
 package io.github.darkkronicle.advancedchat.chat.suggestors;
 
+import com.google.common.collect.ImmutableList;
 import com.mojang.brigadier.context.StringRange;
-import com.mojang.brigadier.suggestion.Suggestions;
 import com.softcorporation.suggester.BasicSuggester;
 import com.softcorporation.suggester.Suggestion;
 import com.softcorporation.suggester.dictionary.BasicDictionary;
 import com.softcorporation.suggester.tools.SpellCheck;
-import com.softcorporation.suggester.util.SuggesterException;
+import fi.dy.masa.malilib.util.FileUtils;
+import io.github.darkkronicle.advancedchat.AdvancedChat;
 import io.github.darkkronicle.advancedchat.chat.AdvancedSuggestion;
 import io.github.darkkronicle.advancedchat.chat.AdvancedSuggestions;
+import io.github.darkkronicle.advancedchat.gui.AdvancedChatScreen;
 import io.github.darkkronicle.advancedchat.interfaces.IMessageSuggestor;
+import lombok.Value;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
+/**
+ * Suggests spelling corrections.
+ *
+ * The dictionary is only loaded the first time the chat screen is opened, and it's loaded on a background thread.
+ * Nothing is suggested until it's ready.
+ *
+ * Text is split on whitespace into words, and what was found in each word is remembered. Only words that haven't been
+ * checked before are sent to the checker, which runs on its own thread. Words that are still being checked aren't
+ * flagged, and once they're done the chat screen is told to refresh its suggestions.
+ */
 @Environment(EnvType.CLIENT)
 public class SpellCheckSuggestor implements IMessageSuggestor {
 
-    private final BasicDictionary dictionary;
-    private final BasicSuggester suggester;
+    private final static String DICTIONARY = "english.zip";
+
+    /**
+     * How many checked words to remember
+     */
+    private final static int CACHE_SIZE = 4096;
+
+    /**
+     * How many times loading can fail before it stops trying
+     */
+    private final static int MAX_LOAD_ATTEMPTS = 3;
+
+    /**
+     * A misspelling within a word
+     */
+    @Value
+    private static class Misspelling {
+
+        int offset;
+        int length;
+        ImmutableList<String> suggestions;
+
+    }
+
+    /**
+     * Suggester once the dictionary has loaded
+     */
+    private volatile BasicSuggester suggester = null;
+
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    /**
+     * Failed loads so far. Only used on the checker thread.
+     */
+    private int failedLoads = 0;
+
+    /**
+     * Incremented for every new set of words to check, so checks for old text can stop early
+     */
+    private final AtomicLong generation = new AtomicLong(0);
+
+    /**
+     * Loads the dictionary and checks words. One thread so that the suggester is only ever used by one thing.
+     */
+    private final ExecutorService checker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AdvancedChat Spell Check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Checked words and what was wrong with them. Empty if the word is fine.
+     */
+    private final LinkedHashMap<String, List<Misspelling>> checked = new LinkedHashMap<String, List<Misspelling>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Misspelling>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public SpellCheckSuggestor() {
 
-    public SpellCheckSuggestor() throws SuggesterException {
-        dictionary = new BasicDictionary("file://" + new File("./config/advancedchat/english.zip").getAbsolutePath().replace("./", ""));
-        suggester = new BasicSuggester();
-        suggester.attach(dictionary);
     }
 
     public static Supplier<IMessageSuggestor> newWithCatch() {
@@ -44,45 +127,201 @@ public class SpellCheckSuggestor implements IMessageSuggestor {
         };
     }
 
+    /**
+     * Starts loading the dictionary if it hasn't been already.
+     */
     @Override
-    public Optional<List<AdvancedSuggestions>> suggest(String text) {
-        SpellCheck spellCheck = new SpellCheck();
-        spellCheck.setSuggestionLimit(5);
+    public void onOpen() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        checker.execute(this::load);
+    }
+
+    /**
+     * If the dictionary is loaded and suggestions can be made
+     *
+     * @return If it's ready
+     */
+    public boolean isReady() {
+        return suggester != null;
+    }
+
+    private void load() {
+        long start = System.nanoTime();
         try {
-            spellCheck.setSuggester(suggester);
+            File file = extractDictionary();
+            BasicDictionary dictionary = new BasicDictionary("file://" + file.getAbsolutePath().replace("./", ""));
+            BasicSuggester loaded = new BasicSuggester();
+            loaded.attach(dictionary);
+            suggester = loaded;
+            LogManager.getLogger().info("[AdvancedChat] Loaded the spell check dictionary in {}ms", (System.nanoTime() - start) / 1000000);
         } catch (Exception e) {
-            e.printStackTrace();
+            LogManager.getLogger().log(Level.ERROR, "[AdvancedChat] {}", "Couldn't load the spell check dictionary", e);
+            // The copy could be broken, so the next try copies it out of the jar again
+            try {
+                Files.deleteIfExists(getDictionaryFile().toPath());
+            } catch (Exception deleteException) {
+                LogManager.getLogger().log(Level.ERROR, "[AdvancedChat] {}", "Couldn't delete the spell check dictionary", deleteException);
+            }
+            failedLoads++;
+            if (failedLoads < MAX_LOAD_ATTEMPTS) {
+                // Try again the next time chat is opened
+                loading.set(false);
+            } else {
+                LogManager.getLogger().warn("[AdvancedChat] The spell check dictionary failed to load {} times, spell check is off until the game is restarted", failedLoads);
+            }
+        }
+    }
+
+    private static File getDictionaryFile() {
+        return new File(new File(FileUtils.getConfigDirectory(), "advancedchat"), DICTIONARY);
+    }
+
+    /**
+     * Copies the dictionary out of the jar the first time it's needed. Later launches use the copy that's already
+     * there. The copy is moved into place once it's complete so a launch that gets closed part way through doesn't
+     * leave a broken dictionary.
+     *
+     * @return Dictionary file
+     * @throws Exception If the dictionary couldn't be copied
+     */
+    private static File extractDictionary() throws Exception {
+        File english = getDictionaryFile();
+        if (english.exists()) {
+            return english;
+        }
+        File directory = english.getParentFile();
+        directory.mkdirs();
+        File temp = new File(directory, DICTIONARY + ".tmp");
+        try (InputStream stream = AdvancedChat.getResource(DICTIONARY)) {
+            Files.copy(stream, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        try {
+            Files.move(temp.toPath(), english.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), english.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return english;
+    }
+
+    @Override
+    public CompletableFuture<Optional<List<AdvancedSuggestions>>> suggestAsync(String text, Executor executor) {
+        if (suggester == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return CompletableFuture.supplyAsync(() -> suggest(text), executor);
+    }
+
+    @Override
+    public Optional<List<AdvancedSuggestions>> suggest(String text) {
+        if (suggester == null) {
+            // Still loading
             return Optional.empty();
         }
         ArrayList<AdvancedSuggestions> suggestions = new ArrayList<>();
+        Set<String> unchecked = new LinkedHashSet<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (start == i) {
+                break;
+            }
+            String word = text.substring(start, i);
+            List<Misspelling> found;
+            synchronized (checked) {
+                found = checked.get(word);
+            }
+            if (found == null) {
+                unchecked.add(word);
+                continue;
+            }
+            for (Misspelling misspelling : found) {
+                StringRange range = new StringRange(start + misspelling.getOffset(), start + misspelling.getOffset() + misspelling.getLength());
+                suggestions.add(new AdvancedSuggestions(range, convertSuggestions(misspelling.getSuggestions(), range)));
+            }
+        }
+        if (!unchecked.isEmpty()) {
+            long current = generation.incrementAndGet();
+            List<String> words = new ArrayList<>(unchecked);
+            checker.execute(() -> check(words, current));
+        }
+        return Optional.of(suggestions);
+    }
+
+    /**
+     * Checks words and remembers what was found. Stops early if newer text has come in, since that text will have
+     * sent whatever is still unchecked.
+     *
+     * @param words Words to check
+     * @param current Generation of the text the words are from
+     */
+    private void check(List<String> words, long current) {
+        BasicSuggester suggester = this.suggester;
+        if (suggester == null) {
+            return;
+        }
+        SpellCheck spellCheck = new SpellCheck();
+        spellCheck.setSuggestionLimit(5);
+        boolean found = false;
         try {
-            spellCheck.setText(text);
-            spellCheck.check();
-            while (spellCheck.hasMisspelt()) {
-                List<Suggestion> s = spellCheck.getSuggestions();
-                if (s.isEmpty()) {
-                    // If it can't help you, don't flag it
-                    spellCheck.checkNext();
-                    continue;
+            spellCheck.setSuggester(suggester);
+            for (String word : words) {
+                if (generation.get() != current) {
+                    return;
+                }
+                List<Misspelling> misspellings = checkWord(spellCheck, word);
+                found = found || !misspellings.isEmpty();
+                synchronized (checked) {
+                    checked.put(word, misspellings);
                 }
-                int pos = spellCheck.getMisspeltOffset();
-                int length = spellCheck.getMisspeltLength();
-                String word = spellCheck.getMisspelt();
-                StringRange range = new StringRange(pos, pos + length);
-                suggestions.add(new AdvancedSuggestions(range, convertSuggestions(s, range, word)));
-                spellCheck.checkNext();
             }
         } catch (Exception e) {
             e.printStackTrace();
-            return Optional.empty();
+            return;
         }
-        return Optional.of(suggestions);
+        if (found && generation.get() == current) {
+            MinecraftClient client = MinecraftClient.getInstance();
+            client.execute(() -> {
+                if (client.currentScreen instanceof AdvancedChatScreen) {
+                    ((AdvancedChatScreen) client.currentScreen).refreshChatSuggestions();
+                }
+            });
+        }
+    }
+
+    private static List<Misspelling> checkWord(SpellCheck spellCheck, String word) throws Exception {
+        ImmutableList.Builder<Misspelling> misspellings = ImmutableList.builder();
+        spellCheck.setText(word);
+        spellCheck.check();
+        while (spellCheck.hasMisspelt()) {
+            List<Suggestion> s = spellCheck.getSuggestions();
+            int offset = spellCheck.getMisspeltOffset();
+            int length = spellCheck.getMisspeltLength();
+            // If it can't help you, don't flag it
+            if (!s.isEmpty() && offset >= 0 && offset + length <= word.length()) {
+                ImmutableList.Builder<String> replacements = ImmutableList.builder();
+                for (Suggestion suggestion : s) {
+                    replacements.add(suggestion.getWord());
+                }
+                misspellings.add(new Misspelling(offset, length, replacements.build()));
+            }
+            spellCheck.checkNext();
+        }
+        return misspellings.build();
     }
 
-    private static List<AdvancedSuggestion> convertSuggestions(List<Suggestion> suggestions, StringRange range, String string) {
+    private static List<AdvancedSuggestion> convertSuggestions(List<String> suggestions, StringRange range) {
         List<AdvancedSuggestion> replacements = new ArrayList<>();
-        for (Suggestion s : suggestions) {
-            replacements.add(new AdvancedSuggestion(range, s.getWord()));
+        for (String s : suggestions) {
+            replacements.add(new AdvancedSuggestion(range, s));
         }
         return replacements;
     }
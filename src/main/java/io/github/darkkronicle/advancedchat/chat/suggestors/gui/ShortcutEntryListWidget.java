@@ -77,6 +77,7 @@ public class ShortcutEntryListWidget extends WidgetListEntryBase<ShortcutSuggest
         public boolean onTextChange(GuiTextFieldGeneric textField) {
             if (name) {
                 parent.entry.setName(textField.getText());
+                parent.parent.suggestor.rebuild();
             } else {
                 parent.entry.setReplace(textField.getText());
             }
@@ -43,9 +43,9 @@ public abstract class AbstractChatTab {
     /**
      * If the inputted message should be put into the chat tab.
      *
-     * @param text Object to search.
+     * @param text String of the message to search.
      * @return True if it should be added.
      */
-    public abstract boolean shouldAdd(Text text);
+    public abstract boolean shouldAdd(String text);
 
 }
@@ -5,8 +5,6 @@ import io.github.darkkronicle.advancedchat.util.ColorUtil;
 import lombok.Getter;
 import io.github.darkkronicle.advancedchat.config.ChatTab;
 import io.github.darkkronicle.advancedchat.util.SearchUtils;
-import io.github.darkkronicle.advancedchat.util.FluidText;
-import net.minecraft.text.Text;
 
 /**
  * ChatTab that loads from {@link ChatTab}.
@@ -38,8 +36,7 @@ public class CustomChatTab extends AbstractChatTab {
 
 
     @Override
-    public boolean shouldAdd(Text text) {
-        FluidText newText = new FluidText(text);
-        return SearchUtils.isMatch(newText.getString(), findString, findType);
+    public boolean shouldAdd(String text) {
+        return SearchUtils.isMatch(text, findString, findType);
     }
 }
@@ -36,7 +36,7 @@ public class MainChatTab extends AbstractChatTab {
 
 
     @Override
-    public boolean shouldAdd(Text text) {
+    public boolean shouldAdd(String text) {
         return true;
     }
 
@@ -54,8 +54,9 @@ public class MainChatTab extends AbstractChatTab {
         }
         for (ChatMessage message : ChatHistory.getInstance().getMessages()) {
             ArrayList<AbstractChatTab> tabs = new ArrayList<>();
+            String original = message.getOriginalString();
             for (AbstractChatTab t : allChatTabs) {
-                if (t.shouldAdd(message.getOriginalText())) {
+                if (t.shouldAdd(original)) {
                     tabs.add(t);
                 }
             }
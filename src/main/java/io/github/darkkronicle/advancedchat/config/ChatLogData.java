@@ -1,40 +1,127 @@
 package io.github.darkkronicle.advancedchat.config;
 
-import lombok.Data;
+import io.github.darkkronicle.advancedchat.chat.ChatLogIndex;
 import io.github.darkkronicle.advancedchat.chat.ChatLogMessage;
+import io.github.darkkronicle.advancedchat.chat.PersistentChatLog;
+import io.github.darkkronicle.advancedchat.chat.tabs.AbstractChatTab;
 import io.github.darkkronicle.advancedchat.util.FluidText;
+import io.github.darkkronicle.advancedchat.util.RingBuffer;
+import io.github.darkkronicle.advancedchat.util.SearchUtils;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @Environment(EnvType.CLIENT)
 @Data
 public class ChatLogData {
-    private ArrayList<ChatLogMessage> messages = new ArrayList<>();
+    private RingBuffer<ChatLogMessage> messages = new RingBuffer<>(ConfigStorage.ChatScreen.STORED_LINES.config.getIntegerValue());
     private boolean chatLogTime = ConfigStorage.ChatLog.SHOW_TIME.config.getBooleanValue();
     private boolean chatHudTime = ConfigStorage.ChatScreen.SHOW_TIME.config.getBooleanValue();
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ChatLogIndex index = new ChatLogIndex();
+
+    /**
+     * Goes up every time the stored messages change. Used to know when search results are outdated.
+     */
+    @Setter(AccessLevel.NONE)
+    private int version = 0;
+
     public void addMessage(ChatLogMessage message) {
         boolean showtime = ConfigStorage.ChatLog.SHOW_TIME.config.getBooleanValue();
-        if (showtime) {
+        if (showtime && !message.getPayload().isTimestamped()) {
+            // Only needs to be made again if the time wasn't added for the HUD
             DateTimeFormatter format = DateTimeFormatter.ofPattern(ConfigStorage.General.TIME_FORMAT.config.getStringValue());
             FluidText split = new FluidText(message.getOriginalText());
-            split.addTime(format, message.getTime());
-            message.setDisplayText(split, 600);
+            split.addTime(format, message.getLocalTime());
+            message.setDisplayText(split, 0);
         }
 
-        messages.add(message);
+        PersistentChatLog.getInstance().append(message);
+        index.add(message.getDisplayString());
+        messages.setCapacity(ConfigStorage.ChatScreen.STORED_LINES.config.getIntegerValue());
+        // Once full the oldest message is evicted
+        messages.addFirst(message);
+        index.setFirst(index.getNext() - messages.size());
+        version++;
+    }
+
+    /**
+     * Searches the stored messages. Messages that could match are found with {@link ChatLogIndex} and then checked
+     * with {@link SearchUtils#isMatch(String, String, Filter.FindType)}.
+     *
+     * If {@link PersistentChatLog} is enabled and nothing is being searched, every saved message is returned instead.
+     *
+     * @param search Expression to find. Empty matches everything.
+     * @param type How the search should be interpreted
+     * @param tab Tab that the messages have to be in. Null for every tab.
+     * @return Matching messages, oldest first
+     * @throws java.util.regex.PatternSyntaxException If the search is an invalid regex
+     */
+    public List<ChatLogMessage> search(String search, Filter.FindType type, AbstractChatTab tab) {
+        List<ChatLogMessage> all = getMessages();
+        boolean searching = !search.isEmpty() && type != Filter.FindType.ALL;
+        if (!searching && tab == null) {
+            // Saved messages include everything from this session
+            return PersistentChatLog.isEnabled() ? PersistentChatLog.getInstance().getMessages() : all;
+        }
+        int[] candidates = null;
+        if (searching) {
+            // Throws before anything gets checked if it's invalid
+            SearchUtils.compilePattern(search, type);
+            candidates = index.getCandidates(search, type);
+        }
+        List<ChatLogMessage> found = new ArrayList<>();
+        if (candidates == null) {
+            for (ChatLogMessage message : all) {
+                if (isMatch(message, search, type, tab, searching)) {
+                    found.add(message);
+                }
+            }
+            return found;
+        }
+        int first = index.getFirst();
+        for (int id : candidates) {
+            int position = id - first;
+            if (position < 0 || position >= all.size()) {
+                continue;
+            }
+            ChatLogMessage message = all.get(position);
+            if (isMatch(message, search, type, tab, true)) {
+                found.add(message);
+            }
+        }
+        return found;
+    }
 
-        int visibleMessagesMaxSize = ConfigStorage.ChatScreen.STORED_LINES.config.getIntegerValue();
-        while(this.messages.size() > visibleMessagesMaxSize) {
-            this.messages.remove(this.messages.size() - 1);
+    private static boolean isMatch(ChatLogMessage message, String search, Filter.FindType type, AbstractChatTab tab, boolean searching) {
+        if (tab != null && !Arrays.asList(message.getTab()).contains(tab)) {
+            return false;
         }
+        return !searching || SearchUtils.isMatch(message.getDisplayString(), search, type);
+    }
 
+    /**
+     * Get's the stored messages.
+     *
+     * @return Live view of the messages, oldest first
+     */
+    public List<ChatLogMessage> getMessages() {
+        return messages.oldestFirst();
     }
 
     public void clearLines() {
         this.messages.clear();
+        this.index.clear();
+        version++;
     }
 }
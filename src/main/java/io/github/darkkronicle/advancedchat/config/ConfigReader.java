@@ -0,0 +1,179 @@
+package io.github.darkkronicle.advancedchat.config;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.util.JsonUtils;
+import lombok.Getter;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Reads the configuration file with a {@link JsonReader}.
+ *
+ * Arrays that are streamed, like filters and tabs, are loaded one element at a time as they're read. Only the
+ * serialised JSON of each element is kept for {@link ConfigWriter}, so the file is never held as one tree. Everything
+ * is read before anything is applied, so a file that fails to parse doesn't change the current configuration.
+ */
+@Environment(EnvType.CLIENT)
+public class ConfigReader {
+
+    /**
+     * Everything that was read from a configuration file.
+     */
+    public static class Result {
+
+        /**
+         * Top level sections that weren't streamed
+         */
+        @Getter
+        private final JsonObject root = new JsonObject();
+
+        /**
+         * Serialised JSON of every top level section in order, formatted like {@link JsonUtils#GSON}
+         */
+        @Getter
+        private final LinkedHashMap<String, String> sections = new LinkedHashMap<>();
+
+        private final Map<String, Long> streamNanos = new HashMap<>();
+
+        @Getter
+        private long readNanos;
+
+        /**
+         * Get's how long a streamed array took to load
+         *
+         * @param key Key of the array
+         * @return Time in nanoseconds
+         */
+        public long getStreamNanos(String key) {
+            return streamNanos.getOrDefault(key, 0L);
+        }
+
+    }
+
+    private static class Stream<T> {
+
+        private final Function<JsonObject, T> loader;
+        private final List<T> loaded;
+
+        private Stream(Function<JsonObject, T> loader, List<T> loaded) {
+            this.loader = loader;
+            this.loaded = loaded;
+        }
+
+    }
+
+    private final Map<String, Stream<?>> streams = new HashMap<>();
+
+    /**
+     * Streams a top level array instead of putting it in the root. Each object in it is loaded as it's read.
+     *
+     * @param key Key of the array
+     * @param loader Loads one object of the array
+     * @param loaded List that loaded objects are added to
+     * @return This reader
+     */
+    public <T> ConfigReader stream(String key, Function<JsonObject, T> loader, List<T> loaded) {
+        streams.put(key, new Stream<>(loader, loaded));
+        return this;
+    }
+
+    /**
+     * Reads a configuration file. Files are read as UTF-8 first, and if that fails with the default charset since
+     * old files may be UTF-16.
+     *
+     * @param file File to read
+     * @return What was read, or empty if the file couldn't be read or isn't a JSON object
+     */
+    public Optional<Result> read(File file) {
+        if (file == null || !file.exists() || !file.isFile() || !file.canRead()) {
+            return Optional.empty();
+        }
+        Charset[] sets = new Charset[]{StandardCharsets.UTF_8, Charset.defaultCharset()};
+        for (Charset charset : sets) {
+            try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(file), charset))) {
+                return read(reader);
+            } catch (EOFException e) {
+                // Empty file
+                return Optional.empty();
+            } catch (Exception e) {
+                MaLiLib.logger.error("Failed to parse the JSON file '{}'. Attempting different charset. ", file.getAbsolutePath(), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Result> read(JsonReader reader) throws Exception {
+        long start = System.nanoTime();
+        reader.setLenient(true);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return Optional.empty();
+        }
+        for (Stream<?> stream : streams.values()) {
+            stream.loaded.clear();
+        }
+        Result result = new Result();
+        long streamed = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            Stream<?> stream = streams.get(name);
+            // Later keys replace earlier ones where the first one was, same as a tree
+            if (stream != null) {
+                stream.loaded.clear();
+            }
+            if (stream != null && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                result.root.remove(name);
+                long streamStart = System.nanoTime();
+                result.sections.put(name, readArray(reader, stream));
+                long nanos = System.nanoTime() - streamStart;
+                result.streamNanos.put(name, nanos);
+                streamed += nanos;
+            } else {
+                JsonElement element = JsonParser.parseReader(reader);
+                result.root.add(name, element);
+                result.sections.put(name, JsonUtils.GSON.toJson(element));
+            }
+        }
+        reader.endObject();
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+        result.readNanos = System.nanoTime() - start - streamed;
+        return Optional.of(result);
+    }
+
+    private static <T> String readArray(JsonReader reader, Stream<T> stream) throws Exception {
+        List<String> elements = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonElement element = JsonParser.parseReader(reader);
+            elements.add(JsonUtils.GSON.toJson(element));
+            if (element.isJsonObject()) {
+                stream.loaded.add(stream.loader.apply(element.getAsJsonObject()));
+            }
+        }
+        reader.endArray();
+        return ConfigWriter.join(elements);
+    }
+
+}
@@ -4,9 +4,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
-import fi.dy.masa.malilib.MaLiLib;
 import fi.dy.masa.malilib.config.IConfigBase;
 import fi.dy.masa.malilib.config.IConfigHandler;
 import fi.dy.masa.malilib.config.IConfigOptionListEntry;
@@ -35,16 +33,18 @@ import net.minecraft.util.Identifier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.annotation.Nullable;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 // Used to store values into config.json
 @Environment(EnvType.CLIENT)
@@ -54,9 +54,15 @@ public class ConfigStorage implements IConfigHandler {
     private static final int CONFIG_VERSION = 1;
 
     public static final ArrayList<Filter> FILTERS = new ArrayList<>();
-    private static final String FILTER_KEY = "filters";
+    public static final String FILTER_KEY = "filters";
     public static final ArrayList<ChatTab> TABS = new ArrayList<>();
-    private static final String TABS_KEY = "chattabs";
+    public static final String TABS_KEY = "chattabs";
+
+    /**
+     * Sections that have to be built again on the next save. Screens that edit one mark it when they close, and every
+     * other section is written from what was saved last time.
+     */
+    private static final Set<String> DIRTY = Collections.synchronizedSet(new HashSet<>());
 
 
     public static class SaveableConfig<T extends IConfigBase> {
@@ -106,6 +112,8 @@ public class ConfigStorage implements IConfigHandler {
         public final static SaveableConfig<ConfigString> MESSAGE_OWNER_REGEX = SaveableConfig.fromConfig("messageOwnerRegex",
                 new ConfigString(translate("messageownerregex"), "[A-Za-z0-9_§]{3,16}", translate("info.messageownerregex")));
 
+        public final static SaveableConfig<ConfigBoolean> ASYNC_PROCESSING = SaveableConfig.fromConfig("asyncProcessing",
+                new ConfigBoolean(translate("asyncprocessing"), false, translate("info.asyncprocessing")));
 
         public final static ImmutableList<SaveableConfig<? extends IConfigBase>> OPTIONS = ImmutableList.of(
                 TIME_FORMAT,
@@ -115,7 +123,8 @@ public class ConfigStorage implements IConfigHandler {
                 CHAT_STACK,
                 CHAT_STACK_UPDATE,
                 CHAT_HEADS,
-                MESSAGE_OWNER_REGEX
+                MESSAGE_OWNER_REGEX,
+                ASYNC_PROCESSING
         );
 
     }
@@ -220,10 +229,13 @@ public class ConfigStorage implements IConfigHandler {
                 new ConfigInteger(translate("storedlines"), 1000, 20, 5000, translate("info.storedlines")));
         public final static SaveableConfig<ConfigBoolean> SHOW_TIME = SaveableConfig.fromConfig("showtime",
                 new ConfigBoolean(translate("showtime"), false, translate("info.showtime")));
+        public final static SaveableConfig<ConfigBoolean> PERSIST = SaveableConfig.fromConfig("persist",
+                new ConfigBoolean(translate("persist"), false, translate("info.persist")));
 
         public final static ImmutableList<SaveableConfig<? extends IConfigBase>> OPTIONS = ImmutableList.of(
                 STORED_LINES,
-                SHOW_TIME
+                SHOW_TIME,
+                PERSIST
         );
 
     }
@@ -303,7 +315,17 @@ public class ConfigStorage implements IConfigHandler {
 
 
 
+    /**
+     * Marks sections of the config to be built again on the next save
+     *
+     * @param sections Keys of the sections that changed
+     */
+    public static void markDirty(String... sections) {
+        DIRTY.addAll(Arrays.asList(sections));
+    }
+
     public static void loadFromFile() {
+        ConfigWriter.getInstance().forget();
 
         File v3 = FileUtils.getConfigDirectory().toPath().resolve(CONFIG_FILE_NAME).toFile();
         File configFile;
@@ -329,49 +351,53 @@ public class ConfigStorage implements IConfigHandler {
             }
         }
 
-        if (configFile.exists() && configFile.isFile() && configFile.canRead()) {
-            Filter.FilterJsonSave filterSave = new Filter.FilterJsonSave();
-            ChatTab.ChatTabJsonSave tabSave = new ChatTab.ChatTabJsonSave();
-            JsonElement element = parseJsonFile(configFile);
-
-            if (element != null && element.isJsonObject()) {
-                JsonObject root = element.getAsJsonObject();
-
-                readOptions(root, General.NAME, General.OPTIONS);
-                readOptions(root, ConfigStorage.ChatScreen.NAME, ConfigStorage.ChatScreen.OPTIONS);
-                readOptions(root, ConfigStorage.ChatSuggestor.NAME, ConfigStorage.ChatSuggestor.OPTIONS);
-                readOptions(root, ChatLog.NAME, ChatLog.OPTIONS);
-                readOptions(root, MainTab.NAME, MainTab.OPTIONS);
-
-                JsonElement o = root.get(FILTER_KEY);
-                ConfigStorage.FILTERS.clear();
-                if (o != null && o.isJsonArray()) {
-                    for (JsonElement el : o.getAsJsonArray()) {
-                        if (el.isJsonObject()) {
-                            ConfigStorage.FILTERS.add(filterSave.load(el.getAsJsonObject()));
-                        }
-                    }
-                }
-                JsonElement t = root.get(TABS_KEY);
-                ConfigStorage.TABS.clear();
-                if (t != null && t.isJsonArray()) {
-                    for (JsonElement el : t.getAsJsonArray()) {
-                        if (el.isJsonObject()) {
-                            ConfigStorage.TABS.add(tabSave.load(el.getAsJsonObject()));
-                        }
-                    }
-                }
+        long start = System.nanoTime();
+        List<Filter> filters = new ArrayList<>();
+        List<ChatTab> tabs = new ArrayList<>();
+        Filter.FilterJsonSave filterSave = new Filter.FilterJsonSave();
+        ChatTab.ChatTabJsonSave tabSave = new ChatTab.ChatTabJsonSave();
+        Optional<ConfigReader.Result> read = new ConfigReader()
+                .stream(FILTER_KEY, filterSave::load, filters)
+                .stream(TABS_KEY, tabSave::load, tabs)
+                .read(configFile);
+        long applyStart = System.nanoTime();
+        if (read.isPresent()) {
+            JsonObject root = read.get().getRoot();
+            for (Map.Entry<String, String> section : read.get().getSections().entrySet()) {
+                ConfigWriter.getInstance().remember(section.getKey(), section.getValue());
+            }
+
+            readOptions(root, General.NAME, General.OPTIONS);
+            readOptions(root, ConfigStorage.ChatScreen.NAME, ConfigStorage.ChatScreen.OPTIONS);
+            readOptions(root, ConfigStorage.ChatSuggestor.NAME, ConfigStorage.ChatSuggestor.OPTIONS);
+            readOptions(root, ChatLog.NAME, ChatLog.OPTIONS);
+            readOptions(root, MainTab.NAME, MainTab.OPTIONS);
 
-                applyRegistry(root.get(ChatFormatterRegistry.NAME), ChatFormatterRegistry.getInstance());
-                applyRegistry(root.get(ChatSuggestorRegistry.NAME), ChatSuggestorRegistry.getInstance());
+            // Filters and tabs were already loaded while reading
+            ConfigStorage.FILTERS.clear();
+            ConfigStorage.FILTERS.addAll(filters);
+            ConfigStorage.TABS.clear();
+            ConfigStorage.TABS.addAll(tabs);
 
-                int version = JsonUtils.getIntegerOrDefault(root, "configVersion", 0);
+            applyRegistry(root.get(ChatFormatterRegistry.NAME), ChatFormatterRegistry.getInstance());
+            applyRegistry(root.get(ChatSuggestorRegistry.NAME), ChatSuggestorRegistry.getInstance());
 
-           }
+            int version = JsonUtils.getIntegerOrDefault(root, "configVersion", 0);
         }
+        long setupStart = System.nanoTime();
         AdvancedChat.chatTab.setUpTabs();
         ChatDispatcher.getInstance().loadFilters();
         AdvancedChatHud.getInstance().reset();
+        long end = System.nanoTime();
+        read.ifPresent(result -> LogManager.getLogger().info(
+                "[AdvancedChat] Loaded configuration in {}ms (read {}ms, filters {}ms, tabs {}ms, apply {}ms, setup {}ms)",
+                millis(end - start), millis(result.getReadNanos()), millis(result.getStreamNanos(FILTER_KEY)), millis(result.getStreamNanos(TABS_KEY)),
+                millis(setupStart - applyStart), millis(end - setupStart)
+        ));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
     }
 
     private static void applyRegistry(JsonElement element, AbstractRegistry<?, ? extends ConfigRegistryOption<?>> registry) {
@@ -398,118 +424,78 @@ public class ConfigStorage implements IConfigHandler {
         File dir = FileUtils.getConfigDirectory().toPath().resolve("advancedchat").toFile();
 
         if ((dir.exists() && dir.isDirectory()) || dir.mkdirs()) {
-            Filter.FilterJsonSave filterSave = new Filter.FilterJsonSave();
-            ChatTab.ChatTabJsonSave tabSave = new ChatTab.ChatTabJsonSave();
-            JsonObject root = new JsonObject();
-
-            writeOptions(root, General.NAME, General.OPTIONS);
-            writeOptions(root, ConfigStorage.ChatScreen.NAME, ConfigStorage.ChatScreen.OPTIONS);
-            writeOptions(root, ChatLog.NAME, ChatLog.OPTIONS);
-            writeOptions(root, ChatSuggestor.NAME, ChatSuggestor.OPTIONS);
-            writeOptions(root, MainTab.NAME, MainTab.OPTIONS);
-
-            JsonArray arr = new JsonArray();
-            for (Filter f : ConfigStorage.FILTERS) {
-                arr.add(filterSave.save(f));
-            }
-            root.add(FILTER_KEY, arr);
+            ConfigWriter writer = ConfigWriter.getInstance();
+            LinkedHashMap<String, JsonElement> root = new LinkedHashMap<>();
 
-            JsonArray tabs = new JsonArray();
-            for (ChatTab t : ConfigStorage.TABS) {
-                tabs.add(tabSave.save(t));
-            }
-            root.add(TABS_KEY, tabs);
+            // Options are small so they're always built
+            root.put(General.NAME, saveOptions(General.OPTIONS));
+            root.put(ConfigStorage.ChatScreen.NAME, saveOptions(ConfigStorage.ChatScreen.OPTIONS));
+            root.put(ChatLog.NAME, saveOptions(ChatLog.OPTIONS));
+            root.put(ChatSuggestor.NAME, saveOptions(ChatSuggestor.OPTIONS));
+            root.put(MainTab.NAME, saveOptions(MainTab.OPTIONS));
 
-            root.add(ChatFormatterRegistry.NAME, saveRegistry(ChatFormatterRegistry.getInstance()));
-            root.add(ChatSuggestorRegistry.NAME, saveRegistry(ChatSuggestorRegistry.getInstance()));
+            root.put(FILTER_KEY, saveIfDirty(writer, FILTER_KEY, ConfigStorage::saveFilters));
+            root.put(TABS_KEY, saveIfDirty(writer, TABS_KEY, ConfigStorage::saveTabs));
+            root.put(ChatFormatterRegistry.NAME, saveIfDirty(writer, ChatFormatterRegistry.NAME, () -> saveRegistry(ChatFormatterRegistry.getInstance())));
+            root.put(ChatSuggestorRegistry.NAME, saveIfDirty(writer, ChatSuggestorRegistry.NAME, () -> saveRegistry(ChatSuggestorRegistry.getInstance())));
 
-            root.add("config_version", new JsonPrimitive(CONFIG_VERSION));
+            root.put("config_version", new JsonPrimitive(CONFIG_VERSION));
 
-            writeJsonToFile(root, new File(dir, CONFIG_FILE_NAME));
+            // Serialised and written in the background, and only if something changed
+            writer.save(root, new File(dir, CONFIG_FILE_NAME));
         }
     }
 
-    public static void readOptions(JsonObject root, String category, List<SaveableConfig<?>> options) {
-        JsonObject obj = JsonUtils.getNestedObject(root, category, false);
+    /**
+     * Builds a section if it's been marked dirty or the writer doesn't have it yet
+     *
+     * @return The section, or null if the writer can reuse the last one
+     */
+    @Nullable
+    private static JsonElement saveIfDirty(ConfigWriter writer, String key, Supplier<JsonElement> save) {
+        if (DIRTY.remove(key) || !writer.has(key)) {
+            return save.get();
+        }
+        return null;
+    }
 
-        if (obj != null) {
-            for (SaveableConfig<?> conf : options) {
-                IConfigBase option = conf.config;
-                if (obj.has(conf.key)) {
-                    option.setValueFromJsonElement(obj.get(conf.key));
-                }
-            }
+    private static JsonElement saveFilters() {
+        Filter.FilterJsonSave filterSave = new Filter.FilterJsonSave();
+        JsonArray arr = new JsonArray();
+        for (Filter f : ConfigStorage.FILTERS) {
+            arr.add(filterSave.save(f));
         }
+        return arr;
     }
 
-    // WINDOWS BAD AND MINECRAFT LIKES UTF-16
-    public static JsonElement parseJsonFile(File file)
-    {
-        if (file != null && file.exists() && file.isFile() && file.canRead())
-        {
-            String fileName = file.getAbsolutePath();
-
-            try
-            {
-                JsonParser parser = new JsonParser();
-                Charset[] sets = new Charset[]{StandardCharsets.UTF_8, Charset.defaultCharset()};
-                // Start to enforce UTF 8. Old files may be UTF-16
-                for (Charset s : sets) {
-                    JsonElement element;
-                    InputStreamReader reader = new InputStreamReader(new FileInputStream(file), s);
-                    try {
-                        element = parser.parse(reader);
-                    } catch (Exception e) {
-                        reader.close();
-                        MaLiLib.logger.error("Failed to parse the JSON file '{}'. Attempting different charset. ", fileName, e);
-                        continue;
-                    }
-                    reader.close();
-
-                    return element;
-                }
-            }
-            catch (Exception e)
-            {
-                MaLiLib.logger.error("Failed to parse the JSON file '{}'", fileName, e);
-            }
+    private static JsonElement saveTabs() {
+        ChatTab.ChatTabJsonSave tabSave = new ChatTab.ChatTabJsonSave();
+        JsonArray tabs = new JsonArray();
+        for (ChatTab t : ConfigStorage.TABS) {
+            tabs.add(tabSave.save(t));
         }
+        return tabs;
+    }
 
-        return null;
+    private static JsonObject saveOptions(List<SaveableConfig<?>> options) {
+        JsonObject obj = new JsonObject();
+        for (SaveableConfig<?> option : options) {
+            obj.add(option.key, option.config.getAsJsonElement());
+        }
+        return obj;
     }
 
-    // WINDOWS BAD AND MINECRAFT LIKES UTF-16
-    public static boolean writeJsonToFile(JsonObject root, File file) {
-        OutputStreamWriter writer = null;
-
-        try
-        {
-            writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
-            writer.write(JsonUtils.GSON.toJson(root));
-            writer.close();
-
-            return true;
-        }
-        catch (IOException e)
-        {
-            MaLiLib.logger.warn("Failed to write JSON data to file '{}'", file.getAbsolutePath(), e);
-        }
-        finally
-        {
-            try
-            {
-                if (writer != null)
-                {
-                    writer.close();
+    public static void readOptions(JsonObject root, String category, List<SaveableConfig<?>> options) {
+        JsonObject obj = JsonUtils.getNestedObject(root, category, false);
+
+        if (obj != null) {
+            for (SaveableConfig<?> conf : options) {
+                IConfigBase option = conf.config;
+                if (obj.has(conf.key)) {
+                    option.setValueFromJsonElement(obj.get(conf.key));
                 }
             }
-            catch (Exception e)
-            {
-                MaLiLib.logger.warn("Failed to close JSON file", e);
-            }
         }
-
-        return false;
     }
 
     public static void writeOptions(JsonObject root, String category, List<SaveableConfig<?>> options) {
@@ -0,0 +1,248 @@
+package io.github.darkkronicle.advancedchat.config;
+
+import com.google.gson.JsonElement;
+import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.util.JsonUtils;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the configuration file in the background.
+ *
+ * The JSON of each top level section is kept from the last write. Sections that weren't touched are passed in as
+ * null and reuse it, so they aren't built or serialised again. Saves are debounced so a burst of saves only writes
+ * once, and if no section changed the file isn't touched at all. Files are written to a temporary file and then moved
+ * over the old one, so a crash while saving can't leave a half written config.
+ */
+@Environment(EnvType.CLIENT)
+public class ConfigWriter {
+
+    private final static ConfigWriter INSTANCE = new ConfigWriter();
+
+    /**
+     * How long to wait for more saves before writing
+     */
+    private final static long DELAY = 1000;
+
+    public static ConfigWriter getInstance() {
+        return INSTANCE;
+    }
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AdvancedChat Config Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Serialised JSON of each section that's on disk
+     */
+    private final Map<String, String> written = new HashMap<>();
+
+    private LinkedHashMap<String, JsonElement> pending = null;
+    private File pendingFile = null;
+    private ScheduledFuture<?> future = null;
+
+    /**
+     * Held while a file is being written so that {@link #flush()} waits for a write that's already going
+     */
+    private final Object writeLock = new Object();
+
+    private ConfigWriter() {
+        // Anything pending still has to get written when the game closes
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "AdvancedChat Config Flush"));
+    }
+
+    /**
+     * Remembers a section that was loaded from disk, so saving it unchanged doesn't write anything.
+     *
+     * @param key Key of the section
+     * @param json Serialised JSON of the section, formatted like {@link JsonUtils#GSON}
+     */
+    public synchronized void remember(String key, String json) {
+        written.put(key, json);
+    }
+
+    /**
+     * Forgets every section, so the next save has to build all of them.
+     */
+    public synchronized void forget() {
+        written.clear();
+    }
+
+    /**
+     * Checks if a section can be passed in as null to reuse the last one
+     *
+     * @param key Key of the section
+     * @return If the section is stored or waiting to be written
+     */
+    public synchronized boolean has(String key) {
+        return written.containsKey(key) || (pending != null && pending.get(key) != null);
+    }
+
+    /**
+     * Schedules a configuration to be written. Serialising happens on the writer thread.
+     *
+     * @param sections Top level sections in order. A null value reuses that section from the last save. Elements
+     *                 shouldn't be modified after this.
+     * @param file File to write to
+     */
+    public synchronized void save(LinkedHashMap<String, JsonElement> sections, File file) {
+        if (pending != null) {
+            // Don't lose a section that changed in a save that hasn't been written yet
+            for (Map.Entry<String, JsonElement> entry : sections.entrySet()) {
+                if (entry.getValue() == null) {
+                    entry.setValue(pending.get(entry.getKey()));
+                }
+            }
+        }
+        pending = sections;
+        pendingFile = file;
+        if (future != null) {
+            future.cancel(false);
+        }
+        future = executor.schedule(this::writePending, DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes anything that's pending right away on the calling thread.
+     */
+    public void flush() {
+        writePending();
+    }
+
+    private void writePending() {
+        synchronized (writeLock) {
+            LinkedHashMap<String, JsonElement> sections;
+            File file;
+            synchronized (this) {
+                sections = pending;
+                file = pendingFile;
+                pending = null;
+                future = null;
+            }
+            if (sections == null) {
+                return;
+            }
+            Map<String, String> serialised = new HashMap<>();
+            for (Map.Entry<String, JsonElement> entry : sections.entrySet()) {
+                if (entry.getValue() != null) {
+                    serialised.put(entry.getKey(), JsonUtils.GSON.toJson(entry.getValue()));
+                }
+            }
+            LinkedHashMap<String, String> json = new LinkedHashMap<>();
+            boolean changed = !file.exists();
+            synchronized (this) {
+                changed |= written.size() != sections.size();
+                for (String key : sections.keySet()) {
+                    String previous = written.get(key);
+                    String section = serialised.get(key);
+                    if (section == null) {
+                        if (previous == null) {
+                            // Forgotten by a reload since this was saved
+                            return;
+                        }
+                        section = previous;
+                    } else if (!section.equals(previous)) {
+                        changed = true;
+                    }
+                    json.put(key, section);
+                }
+                if (!changed) {
+                    return;
+                }
+                written.clear();
+                written.putAll(json);
+            }
+            if (!writeAtomically(join(json), file)) {
+                synchronized (this) {
+                    // Make sure the next save tries again
+                    written.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts serialised sections together into one object, formatted the same as {@link JsonUtils#GSON} would.
+     *
+     * @param sections Serialised sections in order
+     * @return JSON of the whole object
+     */
+    static String join(Map<String, String> sections) {
+        if (sections.isEmpty()) {
+            return "{}";
+        }
+        StringBuilder builder = new StringBuilder("{");
+        String separator = "\n";
+        for (Map.Entry<String, String> entry : sections.entrySet()) {
+            builder.append(separator).append("  ").append(JsonUtils.GSON.toJson(entry.getKey())).append(": ")
+                    .append(indent(entry.getValue()));
+            separator = ",\n";
+        }
+        return builder.append("\n}").toString();
+    }
+
+    /**
+     * Puts serialised elements together into one array, formatted the same as {@link JsonUtils#GSON} would.
+     *
+     * @param elements Serialised elements in order
+     * @return JSON of the whole array
+     */
+    static String join(List<String> elements) {
+        if (elements.isEmpty()) {
+            return "[]";
+        }
+        StringBuilder builder = new StringBuilder("[");
+        String separator = "\n";
+        for (String element : elements) {
+            builder.append(separator).append("  ").append(indent(element));
+            separator = ",\n";
+        }
+        return builder.append("\n]").toString();
+    }
+
+    private static String indent(String json) {
+        // Strings can't hold a raw new line, so every one is formatting
+        return json.replace("\n", "\n  ");
+    }
+
+    private static boolean writeAtomically(String json, File file) {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp); Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+                writer.write(json);
+                writer.flush();
+                stream.getFD().sync();
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            MaLiLib.logger.warn("Failed to write JSON data to file '{}'", file.getAbsolutePath(), e);
+            return false;
+        }
+    }
+
+}
@@ -6,6 +6,7 @@ import fi.dy.masa.malilib.gui.button.ButtonGeneric;
 import fi.dy.masa.malilib.gui.button.IButtonActionListener;
 import fi.dy.masa.malilib.gui.interfaces.ISelectionListener;
 import fi.dy.masa.malilib.util.StringUtils;
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.config.gui.widgets.WidgetFilterEntry;
 import io.github.darkkronicle.advancedchat.config.gui.widgets.WidgetListFilters;
@@ -29,6 +30,13 @@ public class GuiChildrenManager extends GuiListBase<Filter, WidgetFilterEntry, W
         }
     }
 
+    @Override
+    public void removed() {
+        // Whatever was edited here has to be in the next save
+        ConfigStorage.markDirty(ConfigStorage.FILTER_KEY);
+        super.removed();
+    }
+
     @Override
     protected WidgetListFilters createListWidget(int listX, int listY) {
         return new WidgetListFilters(listX, listY, this.getBrowserWidth(), this.getBrowserHeight(), this, parent.filter, this);
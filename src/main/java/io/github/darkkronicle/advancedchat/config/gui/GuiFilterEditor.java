@@ -15,6 +15,7 @@ import fi.dy.masa.malilib.gui.interfaces.ISliderCallback;
 import fi.dy.masa.malilib.gui.widgets.WidgetDropDownList;
 import fi.dy.masa.malilib.gui.widgets.WidgetSlider;
 import fi.dy.masa.malilib.util.StringUtils;
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.config.gui.registry.GuiFilterProcessors;
 import io.github.darkkronicle.advancedchat.config.gui.widgets.WidgetLabelHoverable;
@@ -48,6 +49,13 @@ public class GuiFilterEditor extends GuiBase {
 
     }
 
+    @Override
+    public void removed() {
+        // Whatever was edited here has to be in the next save
+        ConfigStorage.markDirty(ConfigStorage.FILTER_KEY);
+        super.removed();
+    }
+
     @Override
     public void onClose() {
         save();
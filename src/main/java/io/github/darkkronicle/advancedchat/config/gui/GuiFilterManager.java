@@ -23,6 +23,13 @@ public class GuiFilterManager extends GuiListBase<Filter, WidgetFilterEntry, Wid
         this.title = StringUtils.translate("advancedchat.screen.main");
     }
 
+    @Override
+    public void removed() {
+        // Whatever was edited here has to be in the next save
+        ConfigStorage.markDirty(ConfigStorage.FILTER_KEY);
+        super.removed();
+    }
+
     @Override
     protected WidgetListFilters createListWidget(int listX, int listY) {
         return new WidgetListFilters(listX, listY, this.getBrowserWidth(), this.getBrowserHeight(), this, null, this);
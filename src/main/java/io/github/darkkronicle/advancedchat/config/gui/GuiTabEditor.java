@@ -25,6 +25,13 @@ public class GuiTabEditor extends GuiConfigsBase {
         this.setParent(parent);
     }
 
+    @Override
+    public void removed() {
+        // Whatever was edited here has to be in the next save
+        ConfigStorage.markDirty(ConfigStorage.TABS_KEY);
+        super.removed();
+    }
+
     @Override
     public void initGui() {
         super.initGui();
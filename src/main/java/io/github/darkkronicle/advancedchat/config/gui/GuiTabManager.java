@@ -22,6 +22,13 @@ public class GuiTabManager extends GuiListBase<ChatTab, WidgetTabEntry, WidgetLi
         this.title = StringUtils.translate("advancedchat.screen.main");
     }
 
+    @Override
+    public void removed() {
+        // Whatever was edited here has to be in the next save
+        ConfigStorage.markDirty(ConfigStorage.TABS_KEY);
+        super.removed();
+    }
+
     @Override
     protected WidgetListTabs createListWidget(int listX, int listY) {
         return new WidgetListTabs(listX, listY, this.getBrowserWidth(), this.getBrowserHeight(), null, this);
@@ -6,6 +6,7 @@ import fi.dy.masa.malilib.gui.button.ButtonGeneric;
 import fi.dy.masa.malilib.gui.button.IButtonActionListener;
 import fi.dy.masa.malilib.util.StringUtils;
 import io.github.darkkronicle.advancedchat.chat.registry.MatchProcessorRegistry;
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.gui.GuiFilterEditor;
 import io.github.darkkronicle.advancedchat.config.gui.widgets.WidgetListRegistryOption;
 import io.github.darkkronicle.advancedchat.config.gui.widgets.WidgetRegistryOptionEntry;
@@ -22,6 +23,13 @@ public class GuiFilterProcessors extends GuiListBase<MatchProcessorRegistry.Matc
         this.title = parent.filter.getName().config.getStringValue();
     }
 
+    @Override
+    public void removed() {
+        // Whatever was edited here has to be in the next save
+        ConfigStorage.markDirty(ConfigStorage.FILTER_KEY);
+        super.removed();
+    }
+
     @Override
     public void initGui() {
         super.initGui();
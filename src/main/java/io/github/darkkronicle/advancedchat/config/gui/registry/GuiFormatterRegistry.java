@@ -7,6 +7,7 @@ import fi.dy.masa.malilib.gui.button.ButtonGeneric;
 import fi.dy.masa.malilib.gui.button.IButtonActionListener;
 import fi.dy.masa.malilib.util.StringUtils;
 import io.github.darkkronicle.advancedchat.chat.registry.ChatFormatterRegistry;
+import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.gui.widgets.WidgetListRegistryOption;
 import io.github.darkkronicle.advancedchat.config.gui.widgets.WidgetRegistryOptionEntry;
 import net.minecraft.client.gui.screen.Screen;
@@ -20,6 +21,13 @@ public class GuiFormatterRegistry extends GuiListBase<ChatFormatterRegistry.Chat
         this.title = StringUtils.translate("advancedchat.screen.formatters");
     }
 
+    @Override
+    public void removed() {
+        // Whatever was edited here has to be in the next save
+        ConfigStorage.markDirty(ChatFormatterRegistry.NAME);
+        super.removed();
+    }
+
     @Override
     public void initGui() {
         super.initGui();
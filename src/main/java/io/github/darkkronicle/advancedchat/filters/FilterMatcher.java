@@ -0,0 +1,191 @@
+package io.github.darkkronicle.advancedchat.filters;
+
+import io.github.darkkronicle.advancedchat.config.Filter;
+import io.github.darkkronicle.advancedchat.util.AhoCorasick;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds which {@link ParentFilter}'s could possibly match a message with one pass over the message.
+ *
+ * Literal and upper/lower filters are put into one {@link AhoCorasick} automaton. Regex filters contribute a literal
+ * that every match of the expression must contain, if one can be found. Filters that can't be narrowed down are always
+ * candidates. Candidates still have to be checked with {@link ParentFilter#filter(io.github.darkkronicle.advancedchat.util.FluidText, io.github.darkkronicle.advancedchat.util.FluidText)}.
+ */
+@Environment(EnvType.CLIENT)
+public class FilterMatcher {
+
+    /**
+     * Escapes that are followed by more characters that belong to them, like {@code \x41} or {@code \p{L}}
+     */
+    private final static String ESCAPES_WITH_ARGUMENT = "xu0ckpPN";
+
+    private final AhoCorasick automaton;
+
+    /**
+     * Filters that have to be checked no matter what the message is
+     */
+    private final BitSet always;
+
+    public FilterMatcher(List<ParentFilter> filters) {
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        always = new BitSet(filters.size());
+        for (int i = 0; i < filters.size(); i++) {
+            ParentFilter filter = filters.get(i);
+            String keyword = getKeyword(filter.getFindType(), filter.getFindString());
+            if (keyword == null || keyword.isEmpty()) {
+                always.set(i);
+            } else {
+                builder.add(keyword, i);
+            }
+        }
+        automaton = builder.build();
+    }
+
+    /**
+     * Get's the indices of the filters that could match the text.
+     *
+     * @param text Text to search
+     * @return {@link BitSet} containing the index of each filter that could match
+     */
+    public BitSet getCandidates(String text) {
+        BitSet candidates = automaton.scan(text);
+        candidates.or(always);
+        return candidates;
+    }
+
+    private static String getKeyword(Filter.FindType type, String findString) {
+        switch (type) {
+            case LITERAL:
+            case UPPERLOWER:
+                return findString;
+            case REGEX:
+                return getRequiredLiteral(findString);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Finds the longest run of literal characters that every match of a regular expression contains.
+     *
+     * This is conservative. Anything inside of groups or character classes is ignored and expressions with
+     * alternation, inline flags, quoting, back references, or escapes that take an argument (like {@code \x41}) return
+     * null.
+     *
+     * @param regex Regular expression
+     * @return Literal that is required for a match, or null if none could be found
+     */
+    public static String getRequiredLiteral(String regex) {
+        if (regex.contains("(?") || regex.contains("\\Q")) {
+            return null;
+        }
+        String best = null;
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        // Character classes can be nested, like [a-z&&[^aeiou]]
+        int classDepth = 0;
+        int length = regex.length();
+        for (int i = 0; i < length; i++) {
+            char c = regex.charAt(i);
+            if (classDepth > 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '[') {
+                    classDepth++;
+                    i = skipClassStart(regex, i);
+                } else if (c == ']') {
+                    classDepth--;
+                }
+                continue;
+            }
+            Character literal = null;
+            int end = i;
+            switch (c) {
+                case '\\':
+                    if (i + 1 >= length) {
+                        return null;
+                    }
+                    char escaped = regex.charAt(i + 1);
+                    end = i + 1;
+                    if (Character.isDigit(escaped) || ESCAPES_WITH_ARGUMENT.indexOf(escaped) >= 0) {
+                        // Characters after these aren't literals, it's easier to not narrow it down
+                        return null;
+                    }
+                    if (!Character.isLetterOrDigit(escaped)) {
+                        literal = escaped;
+                    }
+                    break;
+                case '[':
+                    classDepth = 1;
+                    end = skipClassStart(regex, i);
+                    break;
+                case '(':
+                    depth++;
+                    break;
+                case ')':
+                    depth--;
+                    break;
+                case '|':
+                    if (depth == 0) {
+                        return null;
+                    }
+                    break;
+                case '{':
+                    end = regex.indexOf('}', i);
+                    if (end < 0) {
+                        return null;
+                    }
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                case '*':
+                case '+':
+                case '?':
+                    break;
+                default:
+                    literal = c;
+            }
+            i = end;
+            char quantifier = i + 1 < length ? regex.charAt(i + 1) : 0;
+            boolean optional = quantifier == '?' || quantifier == '*' || quantifier == '{';
+            if (literal != null && depth == 0 && !optional) {
+                current.append(literal.charValue());
+                if (quantifier != '+') {
+                    continue;
+                }
+            }
+            if (best == null || current.length() > best.length()) {
+                best = current.toString();
+            }
+            current.setLength(0);
+        }
+        if (best == null || current.length() > best.length()) {
+            best = current.toString();
+        }
+        return best.isEmpty() ? null : best;
+    }
+
+    /**
+     * Skips the start of a character class. A ] right at the start (or after ^) is part of the class.
+     *
+     * @param regex Regular expression
+     * @param open Index of the [
+     * @return Index of the last character that was skipped
+     */
+    private static int skipClassStart(String regex, int open) {
+        int i = open;
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+            i++;
+        }
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+            i++;
+        }
+        return i;
+    }
+
+}
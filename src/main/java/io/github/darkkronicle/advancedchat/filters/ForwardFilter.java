@@ -1,5 +1,6 @@
 package io.github.darkkronicle.advancedchat.filters;
 
+import com.google.common.collect.ImmutableList;
 import io.github.darkkronicle.advancedchat.chat.ChatDispatcher;
 import io.github.darkkronicle.advancedchat.chat.registry.MatchProcessorRegistry;
 import io.github.darkkronicle.advancedchat.config.Filter;
@@ -23,24 +24,33 @@ import java.util.Optional;
 @Environment(EnvType.CLIENT)
 public class ForwardFilter implements IFilter {
 
-    private final MatchProcessorRegistry registry;
+    /**
+     * Processors that were active when the filter was created.
+     */
+    private final ImmutableList<IMatchProcessor> processors;
 
     public ForwardFilter(MatchProcessorRegistry registry) {
-        this.registry = registry;
+        ImmutableList.Builder<IMatchProcessor> active = ImmutableList.builder();
+        for (MatchProcessorRegistry.MatchProcessorOption p : registry.getAll()) {
+            if (p.isActive()) {
+                active.add(p.getOption());
+            }
+        }
+        this.processors = active.build();
     }
 
     @Override
     public Optional<FluidText> filter(ParentFilter filter, FluidText text, FluidText unfiltered,SearchResult search) {
+        if (search.getMatches().isEmpty()) {
+            return Optional.empty();
+        }
         IMatchProcessor.Result result = null;
-        for (MatchProcessorRegistry.MatchProcessorOption p : registry.getAll()) {
-            if (!p.isActive()) {
-                continue;
-            }
-            IMatchProcessor.Result r = null;
-            if (!p.getOption().matchesOnly() && !search.getMatches().isEmpty()) {
-                r = p.getOption().processMatches(text, unfiltered, null);
-            } else if (!search.getMatches().isEmpty()) {
-                r = p.getOption().processMatches(text, unfiltered, search);
+        for (IMatchProcessor p : processors) {
+            IMatchProcessor.Result r;
+            if (!p.matchesOnly()) {
+                r = p.processMatches(text, unfiltered, null);
+            } else {
+                r = p.processMatches(text, unfiltered, search);
             }
             if (r != null) {
                if (result == null || r.force) {
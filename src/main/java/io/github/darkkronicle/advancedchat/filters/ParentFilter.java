@@ -1,12 +1,15 @@
 package io.github.darkkronicle.advancedchat.filters;
 
+import com.google.common.collect.ImmutableList;
 import io.github.darkkronicle.advancedchat.chat.ChatDispatcher;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.interfaces.IFilter;
 import io.github.darkkronicle.advancedchat.util.ColorUtil;
 import io.github.darkkronicle.advancedchat.util.FluidText;
 import io.github.darkkronicle.advancedchat.util.SearchResult;
+import io.github.darkkronicle.advancedchat.util.SearchUtils;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.Value;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -14,6 +17,7 @@ import net.fabricmc.api.Environment;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Environment(EnvType.CLIENT)
 public class ParentFilter {
@@ -27,16 +31,34 @@ public class ParentFilter {
         public static FilterResult EMPTY = new FilterResult(Optional.empty(), Optional.empty());
     }
 
-    private List<IFilter> filters;
-    private List<ForwardFilter> forwardFilters;
+    private final ImmutableList<IFilter> filters;
+    private final ImmutableList<ForwardFilter> forwardFilters;
+    @Getter
     private final Filter.FindType findType;
+    @Getter
     private final String findString;
 
-    public ParentFilter(Filter.FindType findType, String findString) {
-        filters = new ArrayList<>();
-        forwardFilters = new ArrayList<>();
+    /**
+     * The compiled expression. This is compiled once when the filter is created so that filtering a message only
+     * has to do matching.
+     */
+    private final Pattern pattern;
+
+    /**
+     * Creates an immutable filter.
+     *
+     * @param findType How findString should be interpreted
+     * @param findString Expression to find
+     * @param filters Filters to run on matches
+     * @param forwardFilters Filters that decide whether or not the message will be forwarded
+     * @throws java.util.regex.PatternSyntaxException If findString is an invalid regular expression
+     */
+    public ParentFilter(Filter.FindType findType, String findString, List<IFilter> filters, List<ForwardFilter> forwardFilters) {
         this.findString = findString;
         this.findType = findType;
+        this.pattern = SearchUtils.compilePattern(findString, findType);
+        this.filters = ImmutableList.copyOf(filters);
+        this.forwardFilters = ImmutableList.copyOf(forwardFilters);
     }
 
     public List<IFilter> getFilters() {
@@ -45,16 +67,8 @@ public class ParentFilter {
         return all;
     }
 
-    public void addFilter(IFilter filter) {
-        filters.add(filter);
-    }
-
-    public void addForwardFilter(ForwardFilter forwardFilter) {
-        forwardFilters.add(forwardFilter);
-    }
-
     public FilterResult filter(FluidText text, FluidText unfiltered) {
-        SearchResult search = SearchResult.searchOf(text.getString(), findString, findType);
+        SearchResult search = SearchResult.searchOf(text.getString(), pattern);
         if (search.size() == 0) {
             return FilterResult.EMPTY;
         }
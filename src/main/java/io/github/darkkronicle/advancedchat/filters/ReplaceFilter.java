@@ -1,5 +1,6 @@
 package io.github.darkkronicle.advancedchat.filters;
 
+import com.google.common.collect.ImmutableList;
 import io.github.darkkronicle.advancedchat.interfaces.IFilter;
 import io.github.darkkronicle.advancedchat.interfaces.IMatchReplace;
 import io.github.darkkronicle.advancedchat.util.SearchResult;
@@ -12,7 +13,6 @@ import io.github.darkkronicle.advancedchat.util.FluidText;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,17 +26,24 @@ public class ReplaceFilter implements IFilter {
     public final IMatchReplace type;
     public final ColorUtil.SimpleColor color;
 
+    /**
+     * Whether the replace type only acts on matches. Resolved when the filter is created.
+     */
+    private final boolean matchesOnly;
+
     @Getter
-    private ArrayList<ParentFilter> children = new ArrayList<>();
+    private final ImmutableList<ParentFilter> children;
 
-    public void addChild(ParentFilter filter) {
-        children.add(filter);
+    public ReplaceFilter(String replaceTo, IMatchReplace type, ColorUtil.SimpleColor color) {
+        this(replaceTo, type, color, ImmutableList.of());
     }
 
-    public ReplaceFilter(String replaceTo, IMatchReplace type, ColorUtil.SimpleColor color) {
+    public ReplaceFilter(String replaceTo, IMatchReplace type, ColorUtil.SimpleColor color, List<ParentFilter> children) {
         this.replaceTo = replaceTo;
         this.type = type;
         this.color = color;
+        this.matchesOnly = type != null && type.matchesOnly();
+        this.children = ImmutableList.copyOf(children);
     }
 
     @Override
@@ -45,7 +52,7 @@ public class ReplaceFilter implements IFilter {
         if (type == null) {
             return Optional.empty();
         }
-        if (type.matchesOnly()) {
+        if (matchesOnly) {
             if (search.size() == 0) {
                 return Optional.empty();
             }
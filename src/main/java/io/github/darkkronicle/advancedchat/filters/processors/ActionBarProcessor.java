@@ -5,6 +5,7 @@ import io.github.darkkronicle.advancedchat.util.FluidText;
 import io.github.darkkronicle.advancedchat.util.SearchResult;
 import io.github.darkkronicle.advancedchat.util.SearchUtils;
 import io.github.darkkronicle.advancedchat.util.StringMatch;
+import io.github.darkkronicle.advancedchat.util.SyncTaskQueue;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
@@ -17,11 +18,13 @@ public class ActionBarProcessor implements IMatchProcessor {
 
     @Override
     public Result processMatches(FluidText text, FluidText unfiltered, SearchResult matches) {
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null) {
-            return Result.PROCESSED;
-        }
-        client.inGameHud.addChatMessage(MessageType.GAME_INFO, text, client.player.getUuid());
+        SyncTaskQueue.getInstance().runOnClient(() -> {
+            MinecraftClient client = MinecraftClient.getInstance();
+            if (client.player == null) {
+                return;
+            }
+            client.inGameHud.addChatMessage(MessageType.GAME_INFO, text, client.player.getUuid());
+        });
         return Result.PROCESSED;
     }
 
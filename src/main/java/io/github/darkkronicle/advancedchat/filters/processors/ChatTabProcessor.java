@@ -4,22 +4,25 @@ import io.github.darkkronicle.advancedchat.AdvancedChat;
 import io.github.darkkronicle.advancedchat.chat.ChatHistory;
 import io.github.darkkronicle.advancedchat.chat.ChatLogMessage;
 import io.github.darkkronicle.advancedchat.chat.ChatMessage;
+import io.github.darkkronicle.advancedchat.chat.MessageContext;
 import io.github.darkkronicle.advancedchat.chat.MessageOwner;
 import io.github.darkkronicle.advancedchat.chat.tabs.AbstractChatTab;
 import io.github.darkkronicle.advancedchat.chat.tabs.CustomChatTab;
-import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.gui.AdvancedChatHud;
 import io.github.darkkronicle.advancedchat.interfaces.IMatchProcessor;
 import io.github.darkkronicle.advancedchat.util.ColorUtil;
 import io.github.darkkronicle.advancedchat.util.FluidText;
 import io.github.darkkronicle.advancedchat.util.SearchResult;
 import io.github.darkkronicle.advancedchat.util.SearchUtils;
+import io.github.darkkronicle.advancedchat.util.SyncTaskQueue;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.text.Text;
 
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 
@@ -37,29 +40,35 @@ public class ChatTabProcessor implements IMatchProcessor {
         ColorUtil.SimpleColor backcolor = text.getBackgroundColor();
 
         // Put the time in
-        LocalTime time = LocalTime.now();
-        boolean showtime = ConfigStorage.ChatScreen.SHOW_TIME.config.getBooleanValue();
+        long time = System.currentTimeMillis();
+        // This may not be on the client thread
+        MessageContext context = MessageContext.get();
+        boolean showtime = context.isShowTime();
         // Store original so we can get stuff without the time
         Text original = text.copy();
         if (showtime) {
-            DateTimeFormatter format = DateTimeFormatter.ofPattern(ConfigStorage.General.TIME_FORMAT.config.getStringValue());
-            text.addTime(format, time);
+            DateTimeFormatter format = DateTimeFormatter.ofPattern(context.getTimeFormat());
+            text.addTime(format, LocalTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()), context.getTimeTextFormat(), context.getTimeColor());
         }
 
         int width = 0;
         // Find player
-        MessageOwner player = SearchUtils.getAuthor(MinecraftClient.getInstance().getNetworkHandler(), unfiltered.getString());
-        ChatMessage line = ChatMessage.builder()
-                .displayText(text)
-                .originalText(original)
-                .owner(player)
-                .id(0)
-                .width(width)
-                .creationTick(MinecraftClient.getInstance().inGameHud.getTicks())
-                .time(time)
-                .background(backcolor)
-                .build();
-        addMessage(line);
+        MessageOwner player = SearchUtils.getAuthor(context.getPlayers(), context.getOwnerRegex(), unfiltered.getString());
+        // Everything before this can be done off thread, but adding to chat needs to be on the client
+        SyncTaskQueue.getInstance().runOnClient(() -> {
+            ChatMessage line = ChatMessage.builder()
+                    .displayText(text)
+                    .originalText(original)
+                    .timestamped(showtime)
+                    .owner(player)
+                    .id(0)
+                    .width(width)
+                    .creationTick(MinecraftClient.getInstance().inGameHud.getTicks())
+                    .time(time)
+                    .background(backcolor)
+                    .build();
+            addMessage(line);
+        });
         return true;
     }
 
@@ -75,8 +84,9 @@ public class ChatTabProcessor implements IMatchProcessor {
             added.add(defaultTo);
         }
         if (AdvancedChat.chatTab.getCustomChatTabs().size() > 0) {
+            String original = line.getOriginalString();
             for (CustomChatTab tab : AdvancedChat.chatTab.getCustomChatTabs()) {
-                if (!tab.shouldAdd(line.getOriginalText())) {
+                if (!tab.shouldAdd(original)) {
                     continue;
                 }
                 if (added.contains(tab)) {
@@ -97,7 +107,8 @@ public class ChatTabProcessor implements IMatchProcessor {
         }
         line.setTabs(added);
         AdvancedChat.getChatLogData().addMessage(new ChatLogMessage(line, added.toArray(new AbstractChatTab[0])));
-        ChatHistory.getInstance().add(line);
+        // Messages in the same tick get added together
+        ChatHistory.getInstance().queue(line);
     }
 
     @Override
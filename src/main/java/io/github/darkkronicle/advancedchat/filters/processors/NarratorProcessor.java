@@ -81,6 +81,13 @@ public class NarratorProcessor implements IMatchProcessor, IScreenSupplier, IJso
             this.setTitle(StringUtils.translate("advancedchat.screen.narrator"));
         }
 
+        @Override
+        public void removed() {
+            // Whatever was edited here has to be in the next save
+            ConfigStorage.markDirty(ConfigStorage.FILTER_KEY);
+            super.removed();
+        }
+
         @Override
         protected void closeGui(boolean showParent) {
             save();
@@ -27,6 +27,7 @@ import io.github.darkkronicle.advancedchat.util.ColorUtil;
 import io.github.darkkronicle.advancedchat.util.FluidText;
 import io.github.darkkronicle.advancedchat.util.SearchResult;
 import io.github.darkkronicle.advancedchat.util.StringMatch;
+import io.github.darkkronicle.advancedchat.util.SyncTaskQueue;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
@@ -64,7 +65,8 @@ public class SoundProcessor implements IMatchProcessor, IJsonApplier, IScreenSup
     @Override
     public Result processMatches(FluidText text, @Nullable FluidText unfiltered, SearchResult search) {
         if (getSound() != Filter.NotifySound.NONE) {
-            MinecraftClient.getInstance().getSoundManager().play(PositionedSoundInstance.master(getSound().event, (float) soundPitch.config.getDoubleValue(), (float) soundVolume.config.getDoubleValue()));
+            PositionedSoundInstance sound = PositionedSoundInstance.master(getSound().event, (float) soundPitch.config.getDoubleValue(), (float) soundVolume.config.getDoubleValue());
+            SyncTaskQueue.getInstance().runOnClient(() -> MinecraftClient.getInstance().getSoundManager().play(sound));
             return Result.PROCESSED;
         }
         return Result.FAIL;
@@ -114,6 +116,13 @@ public class SoundProcessor implements IMatchProcessor, IJsonApplier, IScreenSup
             this.setTitle(StringUtils.translate("advancedchat.screen.sound"));
         }
 
+        @Override
+        public void removed() {
+            // Whatever was edited here has to be in the next save
+            ConfigStorage.markDirty(ConfigStorage.FILTER_KEY);
+            super.removed();
+        }
+
         @Override
         protected void closeGui(boolean showParent) {
             save();
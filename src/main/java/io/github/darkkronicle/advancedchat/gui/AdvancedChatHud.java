@@ -205,6 +205,17 @@ public class AdvancedChatHud implements IRenderer {
         }
     }
 
+    /**
+     * Sends a batch of new messages to every window.
+     *
+     * @param messages Messages, oldest first
+     */
+    public void onNewMessages(List<ChatMessage> messages) {
+        for (ChatWindow w : windows) {
+            w.addMessages(messages);
+        }
+    }
+
     public void clear() {
         messageHistory.clear();
         for (ChatWindow w : windows) {
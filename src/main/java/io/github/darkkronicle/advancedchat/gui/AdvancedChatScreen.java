@@ -3,6 +3,7 @@ package io.github.darkkronicle.advancedchat.gui;
 import fi.dy.masa.malilib.gui.GuiBase;
 import fi.dy.masa.malilib.util.KeyCodes;
 import fi.dy.masa.malilib.util.StringUtils;
+import io.github.darkkronicle.advancedchat.chat.registry.ChatSuggestorRegistry;
 import io.github.darkkronicle.advancedchat.chat.tabs.AbstractChatTab;
 import io.github.darkkronicle.advancedchat.chat.tabs.CustomChatTab;
 import io.github.darkkronicle.advancedchat.chat.tabs.MainChatTab;
@@ -105,6 +106,11 @@ public class AdvancedChatScreen extends GuiBase {
 
         initTabButtons();
 
+        for (ChatSuggestorRegistry.ChatSuggestorOption option : ChatSuggestorRegistry.getInstance().getAll()) {
+            if (option.isActive() && option.getOption() != null) {
+                option.getOption().onOpen();
+            }
+        }
         this.commandSuggestor = new ChatSuggestorGui(this.client, this, this.chatField, this.textRenderer, false, false, 1, ConfigStorage.ChatSuggestor.SUGGESTION_SIZE.config.getIntegerValue(), true);
         this.commandSuggestor.refresh();
         this.setInitialFocus(this.chatField);
@@ -144,6 +150,13 @@ public class AdvancedChatScreen extends GuiBase {
         this.commandSuggestor.refresh();
     }
 
+    /**
+     * Rebuilds the chat suggestions for the current text. Used when a suggestor finishes something in the background.
+     */
+    public void refreshChatSuggestions() {
+        this.commandSuggestor.refreshChat();
+    }
+
     @Override
     public void sendMessage(String message, boolean toHud) {
         if (ConfigStorage.ChatScreen.SEND_TO_CURRENT_TAB.config.getBooleanValue()) {
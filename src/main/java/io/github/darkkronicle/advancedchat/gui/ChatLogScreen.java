@@ -4,10 +4,10 @@ import fi.dy.masa.malilib.gui.GuiBase;
 import fi.dy.masa.malilib.util.StringUtils;
 import io.github.darkkronicle.advancedchat.chat.ChatLogMessage;
 import io.github.darkkronicle.advancedchat.chat.tabs.AbstractChatTab;
+import io.github.darkkronicle.advancedchat.config.ChatLogData;
 import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import io.github.darkkronicle.advancedchat.util.ColorUtil;
-import io.github.darkkronicle.advancedchat.util.SearchUtils;
 import io.github.darkkronicle.advancedchat.AdvancedChat;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawableHelper;
@@ -17,14 +17,14 @@ import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.text.LiteralText;
 import net.minecraft.text.Style;
+import net.minecraft.text.Text;
 import net.minecraft.util.math.MathHelper;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.regex.PatternSyntaxException;
-import java.util.stream.Collectors;
 
 public class ChatLogScreen extends GuiBase {
 
@@ -41,6 +41,18 @@ public class ChatLogScreen extends GuiBase {
 
     private Filter.FindType findType = Filter.FindType.LITERAL;
 
+    private List<ChatLogMessage> cachedLines = null;
+    private String cachedSearch;
+    private Filter.FindType cachedFindType;
+    private AbstractChatTab cachedTab;
+    private int cachedVersion;
+
+    /**
+     * Text of the rows drawn last frame. Rows that stop being drawn are dropped, so only visible rows hold a text.
+     */
+    private Map<ChatLogMessage, Text> shown = new IdentityHashMap<>();
+    private Map<ChatLogMessage, Text> nextShown = new IdentityHashMap<>();
+
     public ChatLogScreen() {
         this.title = StringUtils.translate("advancedchat.screen.chatlog");
     }
@@ -132,32 +144,17 @@ public class ChatLogScreen extends GuiBase {
         DrawableHelper.drawCenteredText(matrices, client.textRenderer, "ChatLog", client.getWindow().getScaledWidth() / 2, 20, ColorUtil.WHITE.color());
         int windowHeight = client.getWindow().getScaledHeight();
         int maxheight =  windowHeight - 90;
-        List<ChatLogMessage> filteredLines = AdvancedChat.getChatLogData().getMessages();
+        List<ChatLogMessage> filteredLines;
         int lines = 0;
         int lineHeight = ConfigStorage.ChatScreen.LINE_SPACE.config.getIntegerValue();
         int bottomScreenOffset = 20;
         ColorUtil.SimpleColor textColor = ConfigStorage.ChatScreen.EMPTY_TEXT_COLOR.config.getSimpleColor();
-        if (tab != null) {
-            filteredLines = filteredLines.stream().filter(filter -> Arrays.asList(filter.getTab()).contains(tab)).collect(Collectors.toList());
-        }
-        if (!searchText.equals("")) {
-            try {
-                if (searchFull.isChecked()) {
-                    ArrayList<UUID> uuids = new ArrayList<>();
-                    filteredLines.forEach(line -> {
-                        if (SearchUtils.isMatch(line.getDisplayText().getString(), searchText, findType)) {
-                            uuids.add(line.getUuid());
-                        }
-                    });
-                    filteredLines = filteredLines.stream().filter(filter -> uuids.contains(filter.getUuid())).collect(Collectors.toList());
-                } else {
-                    filteredLines = filteredLines.stream().filter(filter -> SearchUtils.isMatch(filter.getDisplayText().getString(), searchText, findType)).collect(Collectors.toList());
-                }
-            } catch (PatternSyntaxException e) {
-                drawStringWithShadow(matrices, client.textRenderer, "Bad search!", 20, windowHeight - bottomScreenOffset - lineHeight, textColor.color());
-                super.render(matrices, mouseX, mouseY, delta);
-                return;
-            }
+        try {
+            filteredLines = getFilteredLines();
+        } catch (PatternSyntaxException e) {
+            drawStringWithShadow(matrices, client.textRenderer, "Bad search!", 20, windowHeight - bottomScreenOffset - lineHeight, textColor.color());
+            super.render(matrices, mouseX, mouseY, delta);
+            return;
         }
 
 
@@ -181,7 +178,7 @@ public class ChatLogScreen extends GuiBase {
                         endLine = i + scrolledLines;
                         break;
                     }
-                    drawTextWithShadow(matrices, client.textRenderer, line.getDisplayText(), 20, height + 1, textColor.color());
+                    drawTextWithShadow(matrices, client.textRenderer, getRowText(line), 20, height + 1, textColor.color());
                 }
             }
             DrawableHelper.drawCenteredText(matrices, client.textRenderer, startLine + "-" + endLine + "/" + filteredLines.size(), client.getWindow().getScaledWidth() / 2, 10, ColorUtil.WHITE.color());
@@ -189,6 +186,10 @@ public class ChatLogScreen extends GuiBase {
         } else {
             drawStringWithShadow(matrices, client.textRenderer, "Nothing found...", 20, windowHeight - bottomScreenOffset - lineHeight, textColor.color());
         }
+        Map<ChatLogMessage, Text> last = shown;
+        shown = nextShown;
+        nextShown = last;
+        nextShown.clear();
 
         Style style = this.getText(mouseX, mouseY);
         if (style != null && style.getHoverEvent() != null) {
@@ -197,6 +198,40 @@ public class ChatLogScreen extends GuiBase {
 
     }
 
+    /**
+     * Get's the messages that match the search and tab. Results are kept until the search, tab or the log changes.
+     *
+     * @return Matching messages, oldest first
+     * @throws PatternSyntaxException If the search is an invalid regex
+     */
+    private List<ChatLogMessage> getFilteredLines() {
+        ChatLogData data = AdvancedChat.getChatLogData();
+        if (cachedLines != null && searchText.equals(cachedSearch) && findType == cachedFindType && tab == cachedTab && data.getVersion() == cachedVersion) {
+            return cachedLines;
+        }
+        cachedLines = data.search(searchText, findType, tab);
+        cachedSearch = searchText;
+        cachedFindType = findType;
+        cachedTab = tab;
+        cachedVersion = data.getVersion();
+        return cachedLines;
+    }
+
+    /**
+     * Get's the text of a row that's being drawn. The text is kept while the row stays on screen.
+     *
+     * @param message Message of the row
+     * @return Display text
+     */
+    private Text getRowText(ChatLogMessage message) {
+        Text text = shown.get(message);
+        if (text == null) {
+            text = message.getDisplayText();
+        }
+        nextShown.put(message, text);
+        return text;
+    }
+
     @Override
     public boolean mouseScrolled(double d, double e, double amount) {
         scrolledLines = scrolledLines + (int) Math.ceil(amount * 7);
@@ -228,7 +263,7 @@ public class ChatLogScreen extends GuiBase {
                     int lineNum = (int)(trueY / ConfigStorage.ChatScreen.LINE_SPACE.config.getIntegerValue() + (double)this.scrolledLines);
                     if (lineNum >= 0 && lineNum < AdvancedChat.getChatLogData().getMessages().size() && lineNum <= getVisibleLineCount() + scrolledLines) {
                         ChatLogMessage chatHudLine = AdvancedChat.getChatLogData().getMessages().get(AdvancedChat.getChatLogData().getMessages().size() - lineNum - 1);
-                        return this.client.textRenderer.getTextHandler().getStyleAt(chatHudLine.getDisplayText(), (int)trueX - 20);
+                        return this.client.textRenderer.getTextHandler().getStyleAt(getHoveredText(chatHudLine), (int)trueX - 20);
                     }
                 }
             }
@@ -237,6 +272,11 @@ public class ChatLogScreen extends GuiBase {
         return null;
     }
 
+    private Text getHoveredText(ChatLogMessage message) {
+        Text text = shown.get(message);
+        return text != null ? text : message.getDisplayText();
+    }
+
     public boolean mouseClicked(double mouseX, double mouseY, int button) {
         if (button == 0) {
             AdvancedChatHud chatHud = AdvancedChatHud.getInstance();
@@ -107,6 +107,10 @@ public class ChatSuggestorGui {
 
     public void showSuggestions(boolean narrateFirstSuggestion) {
         if (!suggestor.isDone()) {
+            if (suggestor.getPendingSuggestions() != null) {
+                // Show them once they're ready
+                suggestor.runAfterDone(() -> this.client.execute(() -> this.showSuggestions(narrateFirstSuggestion)));
+            }
             return;
         }
         List<AdvancedSuggestion> suggestions = suggestor.getSuggestions();
@@ -164,6 +168,17 @@ public class ChatSuggestorGui {
     }
 
 
+    /**
+     * Rebuilds chat suggestions without closing the suggestion window. Commands are left alone.
+     */
+    public void refreshChat() {
+        String currentText = this.textField.getText();
+        if (currentText.startsWith("/") || this.slashOptional) {
+            return;
+        }
+        this.suggestor.updateChatSuggestions();
+    }
+
     private static OrderedText formatException(CommandSyntaxException exception) {
         Text text = Texts.toText(exception.getRawMessage());
         String string = exception.getContext();
@@ -422,7 +437,7 @@ public class ChatSuggestorGui {
         }
 
         public void complete() {
-            Suggestion suggestion = this.suggestions.get(this.selection);
+            AdvancedSuggestion suggestion = this.suggestions.get(this.selection);
             ChatSuggestorGui.this.completingSuggestions = true;
             ChatSuggestorGui.this.textField.setText(suggestion.apply(this.typedText));
             int i = suggestion.getRange().getStart() + suggestion.getText().length();
@@ -431,6 +446,7 @@ public class ChatSuggestorGui {
             this.select(this.selection);
             ChatSuggestorGui.this.completingSuggestions = false;
             this.completed = true;
+            suggestion.onComplete();
         }
 
         private String getNarration() {
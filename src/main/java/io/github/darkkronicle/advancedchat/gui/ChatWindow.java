@@ -10,11 +10,10 @@ import io.github.darkkronicle.advancedchat.chat.tabs.AbstractChatTab;
 import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.util.ColorUtil;
 import io.github.darkkronicle.advancedchat.util.EasingMethod;
-import io.github.darkkronicle.advancedchat.util.FluidText;
 import io.github.darkkronicle.advancedchat.util.LimitedInteger;
-import io.github.darkkronicle.advancedchat.util.RawText;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Value;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
@@ -23,12 +22,12 @@ import net.minecraft.client.sound.PositionedSoundInstance;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.text.Style;
-import net.minecraft.text.Text;
-import net.minecraft.text.TextColor;
 import net.minecraft.util.Identifier;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 @Environment(EnvType.CLIENT)
 public class ChatWindow {
@@ -46,7 +45,14 @@ public class ChatWindow {
 
     private ConfigStorage.Visibility visibility = (ConfigStorage.Visibility) ConfigStorage.ChatScreen.VISIBILITY.config.getOptionListValue();
 
-    private List<ChatMessage> lines;
+    private LineIndex lines;
+
+    /**
+     * Messages that had lines drawn last frame. Messages that stop being drawn get released so that only visible
+     * messages hold their wrapped text.
+     */
+    private Set<ChatMessage> visible = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Set<ChatMessage> nextVisible = Collections.newSetFromMap(new IdentityHashMap<>());
 
     @Getter
     @Setter
@@ -73,29 +79,46 @@ public class ChatWindow {
 
     public void setTab(AbstractChatTab tab) {
         this.tab = tab;
-        this.lines = new ArrayList<>();
-        List<ChatMessage> messages = ChatHistory.getInstance().getMessages();
-        for (int i = messages.size() - 1; i >= 0; i--) {
-            addMessage(messages.get(i));
-        }
+        this.lines = new LineIndex(ConfigStorage.ChatScreen.STORED_LINES.config.getIntegerValue());
+        addMessages(ChatHistory.getInstance().getMessages().oldestFirst());
     }
 
     public void addMessage(ChatMessage message) {
         this.addMessage(message, false, false);
     }
 
+    /**
+     * Adds multiple messages at once. Messages are wrapped with the same width and creation tick for the whole batch.
+     *
+     * @param messages Messages to add, oldest first
+     */
+    public void addMessages(List<ChatMessage> messages) {
+        this.lines.setCapacity(ConfigStorage.ChatScreen.STORED_LINES.config.getIntegerValue());
+        int width = getPaddedWidth();
+        int ticks = MinecraftClient.getInstance().inGameHud.getTicks();
+        int added = 0;
+        for (ChatMessage message : messages) {
+            if (message.getTabs().contains(tab)) {
+                ChatMessage newMessage = message.shallowClone(width);
+                newMessage.setCreationTick(ticks);
+                this.lines.addFirst(newMessage);
+                added++;
+            }
+        }
+        if (scrolledLines > 0) {
+            scrolledLines += added;
+        }
+    }
+
     public void addMessage(ChatMessage message, boolean force, boolean updateCreation) {
         if (force || message.getTabs().contains(tab)) {
             ChatMessage newMessage = message.shallowClone(getPaddedWidth());
             newMessage.setCreationTick(MinecraftClient.getInstance().inGameHud.getTicks());
-            this.lines.add(0, newMessage);
+            this.lines.setCapacity(ConfigStorage.ChatScreen.STORED_LINES.config.getIntegerValue());
+            this.lines.addFirst(newMessage);
             if (scrolledLines > 0) {
                 scrolledLines++;
             }
-            int visibleMessagesMaxSize = ConfigStorage.ChatScreen.STORED_LINES.config.getIntegerValue();
-            while(this.lines.size() > visibleMessagesMaxSize) {
-                this.lines.remove(this.lines.size() - 1);
-            }
         }
     }
 
@@ -186,7 +209,6 @@ public class ChatWindow {
         matrixStack.push();
         matrixStack.scale((float) getScale(), (float) getScale(), 1);
 
-        int lines = 0;
         int renderedLines = 0;
         int scaledWidth = getScaledWidth();
         int scaledHeight = getScaledHeight();
@@ -196,8 +218,12 @@ public class ChatWindow {
         int padRX = getPaddedRightX();
         LimitedInteger y = new LimitedInteger(getScaledHeight() - ConfigStorage.ChatScreen.TOP_PAD.config.getIntegerValue(), ConfigStorage.ChatScreen.BOTTOM_PAD.config.getIntegerValue());
 
-        for (int j = 0; j < this.lines.size(); j++) {
-            ChatMessage message = this.lines.get(j)  ;
+        LineSettings settings = LineSettings.fromConfig();
+        // Skip straight to the first message that can be seen
+        int first = this.lines.findMessage(Math.max(scrolledLines - 1, 0));
+        int lines = first < this.lines.size() ? (int) this.lines.getLinesBefore(first) : 0;
+        for (int j = first; j < this.lines.size(); j++) {
+            ChatMessage message = this.lines.get(j);
             // To get the proper index of reversed
             for (int i = message.getLineCount() - 1; i >= 0; i--) {
                 int lineIndex = message.getLineCount() - i - 1;
@@ -209,7 +235,8 @@ public class ChatWindow {
                     break;
                 }
                 ChatMessage.AdvancedChatLine line = message.getLines().get(i);
-                drawLine(matrixStack, line, leftX, y.getValue(), padLX, padRX, lineIndex, j, renderedLines, chatFocused, ticks);
+                drawLine(matrixStack, settings, line, leftX, y.getValue(), padLX, padRX, lineIndex, j, renderedLines, chatFocused, ticks);
+                nextVisible.add(message);
                 renderedLines++;
             }
             if (lines >= scrolledLines) {
@@ -224,6 +251,7 @@ public class ChatWindow {
         if (renderedLines == 0) {
             y.setValue(0);
         }
+        releaseHidden();
 
         if (focused) {
             if (isSelected()) {
@@ -262,36 +290,60 @@ public class ChatWindow {
         matrixStack.pop();
     }
 
-    private void drawLine(MatrixStack matrixStack, ChatMessage.AdvancedChatLine line, int x, int y, int pLX, int pRX, int lineIndex, int messageIndex, int renderedLines, boolean focused, int ticks) {
-        int height = ConfigStorage.ChatScreen.LINE_SPACE.config.getIntegerValue();
+    /**
+     * Config values that every line needs. Read once per frame instead of once per line.
+     */
+    @Value
+    private static class LineSettings {
+        int lineSpace;
+        int bottomPad;
+        int messageSpace;
+        ColorUtil.SimpleColor textColor;
+        boolean alternateLines;
+        int fadeStart;
+        int fadeStop;
+        EasingMethod fadeType;
+        boolean compact;
+        boolean chatHeads;
+
+        private static LineSettings fromConfig() {
+            int fadeStart = ConfigStorage.ChatScreen.FADE_START.config.getIntegerValue();
+            return new LineSettings(
+                    ConfigStorage.ChatScreen.LINE_SPACE.config.getIntegerValue(),
+                    ConfigStorage.ChatScreen.BOTTOM_PAD.config.getIntegerValue(),
+                    ConfigStorage.ChatScreen.MESSAGE_SPACE.config.getIntegerValue(),
+                    ConfigStorage.ChatScreen.EMPTY_TEXT_COLOR.config.getSimpleColor(),
+                    ConfigStorage.ChatScreen.ALTERNATE_LINES.config.getBooleanValue(),
+                    fadeStart,
+                    fadeStart + ConfigStorage.ChatScreen.FADE_TIME.config.getIntegerValue(),
+                    (EasingMethod) ConfigStorage.ChatScreen.FADE_TYPE.config.getOptionListValue(),
+                    ConfigStorage.ChatScreen.HUD_LINE_TYPE.config.getOptionListValue() == ConfigStorage.HudLineType.COMPACT,
+                    ConfigStorage.General.CHAT_HEADS.config.getBooleanValue()
+            );
+        }
+    }
+
+    private void drawLine(MatrixStack matrixStack, LineSettings settings, ChatMessage.AdvancedChatLine line, int x, int y, int pLX, int pRX, int lineIndex, int messageIndex, int renderedLines, boolean focused, int ticks) {
+        int height = settings.getLineSpace();
         if (renderedLines == 0) {
             if (focused) {
-                height += ConfigStorage.ChatScreen.BOTTOM_PAD.config.getIntegerValue();
+                height += settings.getBottomPad();
             }
         } else if (lineIndex == 0) {
-            height += ConfigStorage.ChatScreen.MESSAGE_SPACE.config.getIntegerValue();
+            height += settings.getMessageSpace();
             // Start of a line
         }
-        ColorUtil.SimpleColor background = line.getParent().getBackground();
-        ColorUtil.SimpleColor text = ConfigStorage.ChatScreen.EMPTY_TEXT_COLOR.config.getSimpleColor();
-        if (background == null) {
-            background = tab.getInnerColor();
-        }
-        if (messageIndex % 2 == 0 && ConfigStorage.ChatScreen.ALTERNATE_LINES.config.getBooleanValue()) {
-            if (background.alpha() <= 215) {
-                background = background.withAlpha(background.alpha() + 40);
-            } else {
-                background = background.withAlpha(background.alpha() - 40);
-            }
-        }
+        ColorUtil.SimpleColor background = line.getBackground(tab.getInnerColor(), messageIndex % 2 == 0 && settings.isAlternateLines());
+        ColorUtil.SimpleColor text = settings.getTextColor();
         float applied = 1;
-        if (!focused) {
+        int timeAlive = ticks - line.getParent().getCreationTick();
+        // Nothing fades before the fade start
+        if (!focused && timeAlive > settings.getFadeStart()) {
             // Find fade percentage
-            int fadeStart = ConfigStorage.ChatScreen.FADE_START.config.getIntegerValue();
-            int fadeStop = fadeStart + ConfigStorage.ChatScreen.FADE_TIME.config.getIntegerValue();
-            int timeAlive = ticks - line.getParent().getCreationTick();
+            int fadeStart = settings.getFadeStart();
+            int fadeStop = settings.getFadeStop();
             float percent = (float) Math.min(1, (double) (timeAlive - fadeStart) / (double) (fadeStop - fadeStart));
-            applied = 1 - (float) ((EasingMethod) ConfigStorage.ChatScreen.FADE_TYPE.config.getOptionListValue()).apply(percent);
+            applied = 1 - (float) settings.getFadeType().apply(percent);
             applied = Math.max(0, applied);
             if (applied <= 0) {
                 return;
@@ -303,28 +355,20 @@ public class ChatWindow {
             }
         }
 
-        // Get line
-        Text render = line.getText();
-        if (line.getParent().getStacks() > 0 && lineIndex == 0) {
-            FluidText toPrint = new FluidText(render);
-            Style style = Style.EMPTY;
-            TextColor color = TextColor.fromRgb(ColorUtil.GRAY.color());
-            style = style.withColor(color);
-            toPrint.getRawTexts().add(new RawText(" (" + (line.getParent().getStacks() + 1) + ")", style));
-            render = toPrint;
-        }
+        // Get line, only the first line shows the stack count
+        boolean showStacks = lineIndex == 0;
 
         int backgroundWidth;
 
-        if (!focused && ConfigStorage.ChatScreen.HUD_LINE_TYPE.config.getOptionListValue() == ConfigStorage.HudLineType.COMPACT) {
-            backgroundWidth = client.textRenderer.getWidth(render) + 4 + headOffset();
+        if (!focused && settings.isCompact()) {
+            backgroundWidth = line.getRenderWidth(showStacks) + 4 + headOffset();
         } else {
             backgroundWidth = getScaledWidth();
         }
 
         // Draw background
         RenderUtils.drawRect(x, getActualY(y), backgroundWidth, height, background.color());
-        if (lineIndex == line.getParent().getLineCount() - 1 && line.getParent().getOwner() != null && ConfigStorage.General.CHAT_HEADS.config.getBooleanValue()) {
+        if (lineIndex == line.getParent().getLineCount() - 1 && line.getParent().getOwner() != null && settings.isChatHeads()) {
             RenderSystem.setShaderColor(1, 1, 1, applied);
             RenderSystem.setShaderTexture(0, line.getParent().getOwner().getTexture());
             DrawableHelper.drawTexture(matrixStack, pLX - 10, getActualY(y), 8, 8, 8, 8, 8, 8, 64, 64);
@@ -332,7 +376,7 @@ public class ChatWindow {
             RenderSystem.setShaderColor(1, 1, 1, 1);
         }
 
-        client.textRenderer.drawWithShadow(matrixStack, render.asOrderedText(), pLX, getActualY(y) + 1, text.color());
+        client.textRenderer.drawWithShadow(matrixStack, line.getRenderText(showStacks), pLX, getActualY(y) + 1, text.color());
     }
 
     public Style getText(double mouseX, double mouseY) {
@@ -351,10 +395,12 @@ public class ChatWindow {
             return null;
         }
 
-        int lines = 0;
         int lineCount = this.lines.size();
         LimitedInteger y = new LimitedInteger(getScaledHeight(), ConfigStorage.ChatScreen.BOTTOM_PAD.config.getIntegerValue());
-        for (ChatMessage message : this.lines) {
+        int first = this.lines.findMessage(Math.max(scrolledLines - 1, 0));
+        int lines = first < this.lines.size() ? (int) this.lines.getLinesBefore(first) : 0;
+        for (int j = first; j < this.lines.size(); j++) {
+            ChatMessage message = this.lines.get(j);
             // To get the proper index of reversed
             for (int i = message.getLineCount() - 1; i >= 0; i--) {
                 lines++;
@@ -381,6 +427,18 @@ public class ChatWindow {
         return null;
     }
 
+    private void releaseHidden() {
+        for (ChatMessage message : visible) {
+            if (!nextVisible.contains(message)) {
+                message.release();
+            }
+        }
+        Set<ChatMessage> last = visible;
+        visible = nextVisible;
+        nextVisible = last;
+        nextVisible.clear();
+    }
+
     private static void drawRect(int x1, int y1, int x2, int y2, int color) {
         if (y1 > y2) {
             int med = y2;
@@ -421,25 +479,29 @@ public class ChatWindow {
     public void setDimensions(int width, int height) {
         this.width = width;
         this.height = height;
-        for (ChatMessage m : lines) {
-            m.formatChildren(this.width);
+        // Only marks the lines to be rewrapped, messages get wrapped when they're rendered
+        int paddedWidth = getPaddedWidth();
+        for (ChatMessage m : lines.getMessages()) {
+            m.formatChildren(paddedWidth);
         }
+        lines.invalidate();
     }
 
     public void stackMessage(ChatMessage message) {
-        ChatMessage toRemove = null;
-        for (ChatMessage line : lines) {
+        int toRemove = -1;
+        for (int i = 0; i < lines.size(); i++) {
+            ChatMessage line = lines.get(i);
             if (message.isSimilar(line)) {
                 if (!ConfigStorage.General.CHAT_STACK_UPDATE.config.getBooleanValue()) {
                     // Just update the message and don't resend it
                     line.setStacks(message.getStacks());
                     return;
                 }
-                toRemove = line;
+                toRemove = i;
                 break;
             }
         }
-        if (toRemove != null) {
+        if (toRemove >= 0) {
             // Remove and then readd it with the updated stack information
             lines.remove(toRemove);
             addMessage(message, true, true);
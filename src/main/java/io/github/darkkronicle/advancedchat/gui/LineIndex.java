@@ -0,0 +1,152 @@
+package io.github.darkkronicle.advancedchat.gui;
+
+import io.github.darkkronicle.advancedchat.chat.ChatMessage;
+import io.github.darkkronicle.advancedchat.util.RingBuffer;
+import lombok.Getter;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+/**
+ * Messages of a {@link ChatWindow}, newest first, with a prefix sum of their line counts.
+ *
+ * The prefix sum is used to find which message a scrolled line belongs to with a binary search, instead of counting
+ * every line above it. It's only computed as far as it's been needed, so messages that are never scrolled to don't
+ * have to be wrapped.
+ */
+@Environment(EnvType.CLIENT)
+public class LineIndex {
+
+    @Getter
+    private final RingBuffer<ChatMessage> messages;
+
+    /**
+     * Offset of each message, parallel to {@link #messages}. The amount of lines above a message is it's offset
+     * minus {@link #base}.
+     */
+    private final RingBuffer<Long> offsets;
+
+    /**
+     * Offset of the newest message. Goes down as messages are added so that older offsets stay correct.
+     */
+    private long base = 0;
+
+    /**
+     * How many of the newest messages have a correct offset
+     */
+    private int valid = 0;
+
+    public LineIndex(int capacity) {
+        this.messages = new RingBuffer<>(capacity);
+        this.offsets = new RingBuffer<>(capacity);
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    public ChatMessage get(int index) {
+        return messages.get(index);
+    }
+
+    /**
+     * Adds a message as the newest. The oldest message is evicted if the capacity is reached.
+     *
+     * @param message Message to add
+     */
+    public void addFirst(ChatMessage message) {
+        messages.addFirst(message);
+        if (valid > 0) {
+            base -= message.getLineCount();
+            valid++;
+        }
+        offsets.addFirst(base);
+        valid = Math.min(valid, messages.size());
+    }
+
+    /**
+     * Removes a message.
+     *
+     * @param index Index of the message
+     * @return The removed message
+     */
+    public ChatMessage remove(int index) {
+        ChatMessage message = messages.remove(index);
+        offsets.remove(index);
+        // Everything older than the removed message is off now
+        valid = Math.min(valid, index);
+        return message;
+    }
+
+    public void setCapacity(int capacity) {
+        messages.setCapacity(capacity);
+        offsets.setCapacity(capacity);
+        valid = Math.min(valid, messages.size());
+    }
+
+    public void clear() {
+        messages.clear();
+        offsets.clear();
+        valid = 0;
+    }
+
+    /**
+     * Marks every line count as changed. Used when the messages get rewrapped.
+     */
+    public void invalidate() {
+        valid = 0;
+    }
+
+    /**
+     * Get's the amount of lines in messages that are newer than a message.
+     *
+     * @param index Index of the message
+     * @return Line count above the message
+     */
+    public long getLinesBefore(int index) {
+        ensureValid(index);
+        return offsets.get(index) - base;
+    }
+
+    /**
+     * Finds the message that contains a line. Lines are counted from the newest message, starting at 0.
+     *
+     * @param line Line to find
+     * @return Index of the message, or {@link #size()} if there aren't that many lines
+     */
+    public int findMessage(long line) {
+        int size = messages.size();
+        if (size == 0) {
+            return 0;
+        }
+        // Extend the prefix sum until it covers the line
+        ensureValid(0);
+        while (valid < size && getLinesBefore(valid - 1) + messages.get(valid - 1).getLineCount() <= line) {
+            ensureValid(valid);
+        }
+        int last = valid - 1;
+        if (getLinesBefore(last) + messages.get(last).getLineCount() <= line) {
+            return size;
+        }
+        // Last message where the lines before it are at most the line
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (getLinesBefore(mid) <= line) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void ensureValid(int index) {
+        while (valid <= index) {
+            long offset = valid == 0 ? base : offsets.get(valid - 1) + messages.get(valid - 1).getLineCount();
+            offsets.set(valid, offset);
+            valid++;
+        }
+    }
+
+}
@@ -119,6 +119,7 @@ public class SharingScreen extends GuiBase {
                         throw new NullPointerException("Filter is null!");
                     }
                     ConfigStorage.FILTERS.add(filter);
+                    ConfigStorage.markDirty(ConfigStorage.FILTER_KEY);
                     ChatDispatcher.getInstance().loadFilters();
                     parent.addGuiMessage(Message.MessageType.SUCCESS, 5000, StringUtils.translate("advancedchat.gui.message.successful"));
                 } else if (type == Type.IMPORT_TAB) {
@@ -128,6 +129,7 @@ public class SharingScreen extends GuiBase {
                         throw new NullPointerException("Filter is null!");
                     }
                     ConfigStorage.TABS.add(tab);
+                    ConfigStorage.markDirty(ConfigStorage.TABS_KEY);
                     AdvancedChat.chatTab.setUpTabs();
                     parent.addGuiMessage(Message.MessageType.SUCCESS, 5000, StringUtils.translate("advancedchat.gui.message.successful"));
                 }
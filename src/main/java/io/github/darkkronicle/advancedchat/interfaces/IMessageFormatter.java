@@ -21,4 +21,18 @@ public interface IMessageFormatter {
      */
     Optional<FluidText> format(FluidText text, @Nullable ParseResults<CommandSource> parse);
 
+    /**
+     * Get's where formatting can start again after the text was changed, so that the text before it doesn't have to be
+     * formatted again. What this formatter does before the index can only depend on the text before it, and formatting
+     * only the text after the index has to give the same result as formatting the whole text.
+     *
+     * @param text Text that will be formatted
+     * @param changed First index where the text changed
+     * @param parse Current commands that have been parsed
+     * @return Index at or before changed. 0 formats everything again.
+     */
+    default int getRestartIndex(String text, int changed, @Nullable ParseResults<CommandSource> parse) {
+        return 0;
+    }
+
 }
@@ -8,6 +8,8 @@ import io.github.darkkronicle.advancedchat.chat.AdvancedSuggestions;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * An interface for building suggestions for the {@link io.github.darkkronicle.advancedchat.chat.ChatSuggestor}
@@ -54,4 +56,45 @@ public interface IMessageSuggestor {
         return Optional.empty();
     }
 
+    /**
+     * Suggests completions to different parts of the text without having to finish right away. By default this runs
+     * {@link #suggest(String)} on the calling thread. Slow suggestors should run on the executor instead.
+     *
+     * @param text Content of the chat box to suggest
+     * @param executor Executor shared by all suggestors
+     * @return Future of the suggestions
+     */
+    default CompletableFuture<Optional<List<AdvancedSuggestions>>> suggestAsync(String text, Executor executor) {
+        return CompletableFuture.completedFuture(suggest(text));
+    }
+
+    /**
+     * Suggests completions to the last word of the text without having to finish right away. By default this runs
+     * {@link #suggestCurrentWord(String, StringRange)} on the calling thread.
+     *
+     * @param text Last word of the chat box
+     * @param range Range of the last word
+     * @param executor Executor shared by all suggestors
+     * @return Future of the suggestions
+     */
+    default CompletableFuture<Optional<List<AdvancedSuggestion>>> suggestCurrentWordAsync(String text, StringRange range, Executor executor) {
+        return CompletableFuture.completedFuture(suggestCurrentWord(text, range));
+    }
+
+    /**
+     * How long suggestions are waited on before they're skipped.
+     *
+     * @return Time in milliseconds
+     */
+    default long getTimeBudget() {
+        return 250;
+    }
+
+    /**
+     * Called when the chat screen is opened. Anything expensive that's only needed for suggesting can be started here.
+     */
+    default void onOpen() {
+
+    }
+
 }
@@ -0,0 +1,21 @@
+package io.github.darkkronicle.advancedchat.mixin;
+
+import io.github.darkkronicle.advancedchat.chat.suggestors.PlayerNameIndex;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.packet.s2c.play.PlayerListS2CPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Environment(EnvType.CLIENT)
+@Mixin(ClientPlayNetworkHandler.class)
+public class MixinClientPlayNetworkHandler {
+
+    @Inject(method = "onPlayerList", at = @At("RETURN"))
+    public void onPlayerList(PlayerListS2CPacket packet, CallbackInfo ci) {
+        PlayerNameIndex.getInstance().onPlayerList((ClientPlayNetworkHandler) (Object) this, packet);
+    }
+}
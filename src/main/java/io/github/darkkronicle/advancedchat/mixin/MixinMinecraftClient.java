@@ -4,6 +4,7 @@ import io.github.darkkronicle.advancedchat.chat.ChatHistory;
 import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.AdvancedChat;
 import io.github.darkkronicle.advancedchat.gui.AdvancedChatHud;
+import io.github.darkkronicle.advancedchat.util.StylePool;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
@@ -22,5 +23,6 @@ public class MixinMinecraftClient {
         if (ConfigStorage.General.CLEAR_ON_DISCONNECT.config.getBooleanValue()) {
             ChatHistory.getInstance().clearAll();
         }
+        StylePool.getInstance().logStats();
     }
 }
@@ -0,0 +1,204 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton that finds which keywords are contained in a string with one pass over it.
+ *
+ * Keywords and input are compared with US-ASCII case folded, which is the same way {@link java.util.regex.Pattern#CASE_INSENSITIVE}
+ * compares characters. Case sensitive keywords will then report a few false positives, so this should only be used
+ * to rule out keywords, not to confirm them.
+ */
+public class AhoCorasick {
+
+    /**
+     * Sorted transition characters for each node
+     */
+    private final char[][] keys;
+
+    /**
+     * Target nodes for each transition character
+     */
+    private final int[][] targets;
+
+    /**
+     * Node to go to when a character has no transition
+     */
+    private final int[] fail;
+
+    /**
+     * Keyword ids that end at this node, including the ones from the failure chain
+     */
+    private final int[][] outputs;
+
+    private final int keywordCount;
+
+    private AhoCorasick(char[][] keys, int[][] targets, int[] fail, int[][] outputs, int keywordCount) {
+        this.keys = keys;
+        this.targets = targets;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.keywordCount = keywordCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static char fold(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return c;
+    }
+
+    private int next(int node, char c) {
+        int index = Arrays.binarySearch(keys[node], c);
+        if (index < 0) {
+            return -1;
+        }
+        return targets[node][index];
+    }
+
+    /**
+     * Scans text for every keyword.
+     *
+     * @param text Text to search
+     * @return A {@link BitSet} with the id of each keyword that was found
+     */
+    public BitSet scan(CharSequence text) {
+        BitSet found = new BitSet(keywordCount);
+        int node = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = fold(text.charAt(i));
+            int to = next(node, c);
+            while (to < 0 && node != 0) {
+                node = fail[node];
+                to = next(node, c);
+            }
+            node = to < 0 ? 0 : to;
+            for (int id : outputs[node]) {
+                found.set(id);
+            }
+        }
+        return found;
+    }
+
+    public static class Builder {
+
+        private final List<TreeMap<Character, Integer>> nodes = new ArrayList<>();
+        private final List<List<Integer>> ends = new ArrayList<>();
+        private int keywordCount = 0;
+
+        private Builder() {
+            newNode();
+        }
+
+        private int newNode() {
+            nodes.add(new TreeMap<>());
+            ends.add(new ArrayList<>());
+            return nodes.size() - 1;
+        }
+
+        /**
+         * Adds a keyword to the automaton.
+         *
+         * @param keyword Keyword to find. Empty keywords are ignored.
+         * @param id Id that will be reported when the keyword is found
+         * @return This builder
+         */
+        public Builder add(String keyword, int id) {
+            keywordCount = Math.max(keywordCount, id + 1);
+            if (keyword.isEmpty()) {
+                return this;
+            }
+            int node = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = fold(keyword.charAt(i));
+                Integer to = nodes.get(node).get(c);
+                if (to == null) {
+                    to = newNode();
+                    nodes.get(node).put(c, to);
+                }
+                node = to;
+            }
+            ends.get(node).add(id);
+            return this;
+        }
+
+        public AhoCorasick build() {
+            int size = nodes.size();
+            char[][] keys = new char[size][];
+            int[][] targets = new int[size][];
+            for (int i = 0; i < size; i++) {
+                TreeMap<Character, Integer> transitions = nodes.get(i);
+                keys[i] = new char[transitions.size()];
+                targets[i] = new int[transitions.size()];
+                int j = 0;
+                for (Map.Entry<Character, Integer> entry : transitions.entrySet()) {
+                    keys[i][j] = entry.getKey();
+                    targets[i][j] = entry.getValue();
+                    j++;
+                }
+            }
+
+            int[] fail = new int[size];
+            int[][] outputs = new int[size][];
+            outputs[0] = toArray(ends.get(0));
+            // Breadth first so that every failure node is finished before it's used
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                outputs[node] = merge(ends.get(node), outputs[fail[node]]);
+                for (int j = 0; j < keys[node].length; j++) {
+                    char c = keys[node][j];
+                    int child = targets[node][j];
+                    int f = fail[node];
+                    int to = findNext(keys, targets, f, c);
+                    while (to < 0 && f != 0) {
+                        f = fail[f];
+                        to = findNext(keys, targets, f, c);
+                    }
+                    fail[child] = to < 0 ? 0 : to;
+                    queue.add(child);
+                }
+            }
+            return new AhoCorasick(keys, targets, fail, outputs, keywordCount);
+        }
+
+        private static int findNext(char[][] keys, int[][] targets, int node, char c) {
+            int index = Arrays.binarySearch(keys[node], c);
+            if (index < 0) {
+                return -1;
+            }
+            return targets[node][index];
+        }
+
+        private static int[] toArray(List<Integer> list) {
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            return array;
+        }
+
+        private static int[] merge(List<Integer> own, int[] inherited) {
+            int[] merged = Arrays.copyOf(toArray(own), own.size() + inherited.length);
+            System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+            return merged;
+        }
+
+    }
+
+}
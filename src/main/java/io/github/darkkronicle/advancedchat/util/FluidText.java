@@ -11,6 +11,8 @@ import net.minecraft.text.*;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -22,12 +24,27 @@ import java.util.TreeSet;
  * A helper class that can take a Text, break it up, and put it back together.
  * This breaks up the Text into different {@link RawText}.
  * This allows for easy editing of text and can modify it in {@link ReplaceFilter}
+ *
+ * The runs work like a piece table. The flattened string and where each run starts in it are cached, so finding the run
+ * at an index is a binary search. Appending only extends the offsets, and changing styles doesn't clear anything. The
+ * messages of runs from {@link #getRawTexts()} shouldn't be changed directly since the cache wouldn't know about it.
  */
 @Environment(EnvType.CLIENT)
 public class FluidText implements MutableText {
 
     private ArrayList<RawText> rawTexts = new ArrayList<>();
 
+    /**
+     * Flattened text of all the runs. Null if it has to be built again.
+     */
+    private String string = null;
+
+    /**
+     * Where each run starts in the flattened text, followed by the total length. Null if it has to be built again.
+     * Can be longer than needed so that appending doesn't copy it every time.
+     */
+    private int[] offsets = null;
+
     @Setter
     @Getter
     private ColorUtil.SimpleColor backgroundColor = null;
@@ -50,16 +67,13 @@ public class FluidText implements MutableText {
      * @param text
      */
     public FluidText(OrderedText text) {
+        RunBuilder runs = new RunBuilder();
         text.accept((index, style, codePoint) -> {
-            RawText last;
-            if (rawTexts.size() > 0 && (last = rawTexts.get(rawTexts.size() - 1)).getStyle().equals(style)) {
-                // Similar styles get grouped
-                last.setMessage(last.getMessage() + new String(Character.toChars(codePoint)));
-            } else {
-                rawTexts.add(new RawText(new String(Character.toChars(codePoint)), style));
-            }
+            // Similar styles get grouped
+            runs.appendCodePoint(codePoint, style);
             return true;
         });
+        rawTexts.addAll(runs.build());
     }
 
     public FluidText() {
@@ -95,11 +109,66 @@ public class FluidText implements MutableText {
         if (rawTexts.size() == 0) {
             return "";
         }
-        StringBuilder stringBuilder = new StringBuilder();
-        for (RawText text : getRawTexts()) {
-            stringBuilder.append(text.getMessage());
+        if (string == null) {
+            StringBuilder stringBuilder = new StringBuilder(length());
+            for (RawText text : rawTexts) {
+                stringBuilder.append(text.getMessage());
+            }
+            string = stringBuilder.toString();
         }
-        return stringBuilder.toString();
+        return string;
+    }
+
+    /**
+     * Get's the length of the flattened text without building it
+     *
+     * @return Amount of characters
+     */
+    public int length() {
+        return getOffsets()[rawTexts.size()];
+    }
+
+    private static int length(RawText text) {
+        return text.getMessage() == null ? 0 : text.getMessage().length();
+    }
+
+    private int[] getOffsets() {
+        if (offsets == null) {
+            offsets = new int[rawTexts.size() + 1];
+            for (int i = 0; i < rawTexts.size(); i++) {
+                offsets[i + 1] = offsets[i] + length(rawTexts.get(i));
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Clears the cached string and offsets. Has to be called whenever the runs are replaced.
+     */
+    private void invalidate() {
+        string = null;
+        offsets = null;
+    }
+
+    /**
+     * Finds the first run that ends after an index. Empty runs are never returned.
+     *
+     * @param index Index in the flattened text
+     * @return Index of the run, or the amount of runs if there isn't one
+     */
+    private int findRun(int index) {
+        int[] offsets = getOffsets();
+        int low = 0;
+        int high = rawTexts.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (offsets[mid + 1] > index) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
     }
 
     /**
@@ -200,9 +269,11 @@ public class FluidText implements MutableText {
     public FluidText truncate(StringMatch match) {
         ArrayList<RawText> newSiblings = new ArrayList<>();
         boolean start = false;
+        // Skip right to the run the match starts in
+        int first = findRun(match.start);
         // Total number of chars went through. Used to find where the match end and beginning is.
-        int totalchar = 0;
-        for (RawText text : getRawTexts()) {
+        int totalchar = first < rawTexts.size() ? getOffsets()[first] : 0;
+        for (RawText text : rawTexts.subList(first, rawTexts.size())) {
             if (text.getMessage() == null || text.getMessage().length() <= 0) {
                 continue;
             }
@@ -239,7 +310,7 @@ public class FluidText implements MutableText {
     @Override
     public MutableText fillStyle(Style styleOverride) {
         for (RawText t : rawTexts) {
-            if (t.getStyle().equals(Style.EMPTY)) {
+            if (StylePool.getInstance().equals(t.getStyle(), Style.EMPTY)) {
                 t.setStyle(styleOverride);
             }
         }
@@ -383,11 +454,17 @@ public class FluidText implements MutableText {
 
         // At the end we take the siblings created in this method and override the old ones.
         rawTexts = newSiblings;
+        invalidate();
 
     }
 
+    /**
+     * Get's the runs that make up this text
+     *
+     * @return Unmodifiable list of runs
+     */
     public List<RawText> getRawTexts() {
-        return rawTexts;
+        return Collections.unmodifiableList(rawTexts);
     }
 
     /**
@@ -397,26 +474,49 @@ public class FluidText implements MutableText {
      * @param time Current time
      */
     public void addTime(DateTimeFormatter format, LocalTime time) {
-        String replaceFormat = ConfigStorage.General.TIME_TEXT_FORMAT.config.getStringValue().replaceAll("&", "§");
-        ColorUtil.SimpleColor color = ConfigStorage.General.TIME_COLOR.config.getSimpleColor();
+        addTime(format, time, ConfigStorage.General.TIME_TEXT_FORMAT.config.getStringValue(), ConfigStorage.General.TIME_COLOR.config.getSimpleColor());
+    }
+
+    /**
+     * Prefixes the time to text without reading the config
+     *
+     * @param format Date formatter
+     * @param time Current time
+     * @param textFormat Format of the prefix, where %TIME% is replaced by the time
+     * @param color Color of the prefix
+     */
+    public void addTime(DateTimeFormatter format, LocalTime time, String textFormat, ColorUtil.SimpleColor color) {
+        String replaceFormat = textFormat.replaceAll("&", "§");
         Style style = Style.EMPTY;
         TextColor textColor = TextColor.fromRgb(color.color());
         style = style.withColor(textColor);
         RawText text = new RawText(replaceFormat.replaceAll("%TIME%", time.format(format)), style);
         rawTexts.add(0, text);
+        invalidate();
     }
 
     public void append(RawText text, boolean copyIfEmpty) {
-        if (rawTexts.size() > 0) {
-            RawText last = rawTexts.get(rawTexts.size() - 1);
+        string = null;
+        int size = rawTexts.size();
+        if (size > 0) {
+            RawText last = rawTexts.get(size - 1);
             // Prevent having a ton of the same siblings in one...
-            if (last.getStyle().equals(text.getStyle()) || (copyIfEmpty && text.getStyle().equals(Style.EMPTY))) {
-                last.setMessage(last.getMessage() + text.getMessage());
-            } else {
-                rawTexts.add(text);
+            StylePool pool = StylePool.getInstance();
+            if (pool.equals(last.getStyle(), text.getStyle()) || (copyIfEmpty && pool.equals(text.getStyle(), Style.EMPTY))) {
+                // Replaced instead of changed since the run could be shared with a truncated text
+                rawTexts.set(size - 1, last.withMessage(last.getMessage() + text.getMessage()));
+                if (offsets != null) {
+                    offsets[size] += length(text);
+                }
+                return;
+            }
+        }
+        rawTexts.add(text);
+        if (offsets != null) {
+            if (offsets.length < size + 2) {
+                offsets = Arrays.copyOf(offsets, Math.max(size + 2, offsets.length * 2));
             }
-        } else {
-            rawTexts.add(text);
+            offsets[size + 1] = offsets[size] + length(text);
         }
     }
 
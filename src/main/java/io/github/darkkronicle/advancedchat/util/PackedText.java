@@ -0,0 +1,127 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable and compact form of a {@link Text} for text that's stored for a long time.
+ *
+ * All the text is kept as one string, with the end of each style run packed into an int array and the styles from
+ * {@link StylePool}. A {@link FluidText} is only made when {@link #toText()} is called, so stored messages don't keep
+ * a tree of text objects around.
+ */
+@Environment(EnvType.CLIENT)
+public class PackedText {
+
+    public final static PackedText EMPTY = new PackedText("", new int[0], new Style[0]);
+
+    private final String string;
+
+    /**
+     * Index in {@link #string} that each run ends at
+     */
+    private final int[] ends;
+
+    private final Style[] styles;
+
+    private PackedText(String string, int[] ends, Style[] styles) {
+        this.string = string;
+        this.ends = ends;
+        this.styles = styles;
+    }
+
+    /**
+     * Packs a text. Empty runs are dropped and runs next to each other with the same style are joined.
+     *
+     * @param text Text to pack
+     * @return Packed text
+     */
+    public static PackedText of(Text text) {
+        if (text == null) {
+            return EMPTY;
+        }
+        StringBuilder builder = new StringBuilder();
+        List<Style> styles = new ArrayList<>();
+        int[][] ends = {new int[4]};
+        StylePool pool = StylePool.getInstance();
+        text.visit((style, string) -> {
+            if (string.isEmpty()) {
+                return Optional.empty();
+            }
+            builder.append(string);
+            int last = styles.size() - 1;
+            if (last >= 0 && pool.equals(styles.get(last), style)) {
+                ends[0][last] = builder.length();
+                return Optional.empty();
+            }
+            if (ends[0].length == styles.size()) {
+                ends[0] = Arrays.copyOf(ends[0], ends[0].length * 2);
+            }
+            ends[0][styles.size()] = builder.length();
+            styles.add(pool.intern(style));
+            return Optional.empty();
+        }, Style.EMPTY);
+        if (styles.isEmpty()) {
+            return EMPTY;
+        }
+        return new PackedText(builder.toString(), Arrays.copyOf(ends[0], styles.size()), styles.toArray(new Style[0]));
+    }
+
+    /**
+     * Makes a {@link FluidText} from the runs. A new one is made every time.
+     *
+     * @return Text with one {@link RawText} for each run
+     */
+    public FluidText toText() {
+        List<RawText> runs = new ArrayList<>(styles.length);
+        for (int i = 0; i < styles.length; i++) {
+            runs.add(new RawText(getString(i), styles[i]));
+        }
+        return new FluidText(runs);
+    }
+
+    public String getString() {
+        return string;
+    }
+
+    public int length() {
+        return string.length();
+    }
+
+    /**
+     * Get's the amount of style runs
+     *
+     * @return Amount of runs
+     */
+    public int size() {
+        return styles.length;
+    }
+
+    /**
+     * Get's the text of a run
+     *
+     * @param run Index of the run
+     * @return Text of the run
+     */
+    public String getString(int run) {
+        return string.substring(run == 0 ? 0 : ends[run - 1], ends[run]);
+    }
+
+    /**
+     * Get's the style of a run
+     *
+     * @param run Index of the run
+     * @return Style of the run
+     */
+    public Style getStyle(int run) {
+        return styles[run];
+    }
+
+}
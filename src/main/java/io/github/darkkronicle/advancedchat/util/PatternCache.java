@@ -0,0 +1,109 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import io.github.darkkronicle.advancedchat.config.Filter;
+import lombok.Value;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded cache of compiled {@link Pattern}'s keyed by the expression and the {@link Filter.FindType}.
+ *
+ * Compiling a pattern is expensive, and the same expressions get used for every message that comes in. Entries
+ * are evicted in least recently used order once the cache is full.
+ */
+@Environment(EnvType.CLIENT)
+public class PatternCache {
+
+    private final static PatternCache INSTANCE = new PatternCache(512);
+
+    public static PatternCache getInstance() {
+        return INSTANCE;
+    }
+
+    @Value
+    private static class Key {
+        String expression;
+        Filter.FindType type;
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Pattern> patterns;
+    private long hits = 0;
+    private long misses = 0;
+
+    public PatternCache(int capacity) {
+        this.capacity = capacity;
+        this.patterns = new LinkedHashMap<Key, Pattern>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Pattern> eldest) {
+                return size() > PatternCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Get's a compiled {@link Pattern} for an expression, compiling it if it isn't stored yet.
+     *
+     * @param toMatch Match string
+     * @param type Find type
+     * @return Compiled pattern
+     * @throws java.util.regex.PatternSyntaxException If a regex expression is invalid. Invalid expressions are not stored.
+     */
+    public synchronized Pattern get(String toMatch, Filter.FindType type) {
+        Key key = new Key(toMatch, type);
+        Pattern pattern = patterns.get(key);
+        if (pattern != null) {
+            hits++;
+            return pattern;
+        }
+        misses++;
+        pattern = compile(toMatch, type);
+        if (pattern != null) {
+            patterns.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    private static Pattern compile(String toMatch, Filter.FindType type) {
+        switch (type) {
+            case UPPERLOWER:
+                return Pattern.compile(Pattern.quote(toMatch), Pattern.CASE_INSENSITIVE);
+            case LITERAL:
+                return Pattern.compile(Pattern.quote(toMatch));
+            case REGEX:
+                return Pattern.compile(toMatch);
+            case ALL:
+                return Pattern.compile(".+");
+        }
+        return null;
+    }
+
+    /**
+     * Removes all stored patterns. Used when the configuration is reloaded so old expressions don't stick around.
+     */
+    public synchronized void clear() {
+        patterns.clear();
+    }
+
+    public synchronized int size() {
+        return patterns.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+}
@@ -0,0 +1,187 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A case insensitive prefix trie.
+ *
+ * Finding everything that starts with a prefix costs the length of the prefix plus the amount of results, instead of
+ * going through every key. Keys can have more than one value.
+ *
+ * @param <V> Type of value
+ */
+public class PrefixTrie<V> {
+
+    private static class Node<V> {
+
+        private Map<Character, Node<V>> children = null;
+
+        private List<V> values = null;
+
+        /**
+         * Values in this node and everything under it
+         */
+        private int size = 0;
+
+    }
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Get's the amount of values in the trie
+     *
+     * @return Amount of values
+     */
+    public int size() {
+        return root.size;
+    }
+
+    public void clear() {
+        root.children = null;
+        root.values = null;
+        root.size = 0;
+    }
+
+    /**
+     * Adds a value to a key. Keys are compared without case.
+     *
+     * @param key Key to add to
+     * @param value Value to add
+     */
+    public void put(String key, V value) {
+        Node<V> node = root;
+        node.size++;
+        for (int i = 0; i < key.length(); i++) {
+            char c = Character.toLowerCase(key.charAt(i));
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            node = node.children.computeIfAbsent(c, character -> new Node<>());
+            node.size++;
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Removes one value from a key. Nodes that end up empty are removed.
+     *
+     * @param key Key to remove from
+     * @param value Value to remove
+     * @return If the value was there
+     */
+    public boolean remove(String key, V value) {
+        Node<V> node = root;
+        List<Node<V>> path = new ArrayList<>(key.length() + 1);
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children == null ? null : node.children.get(Character.toLowerCase(key.charAt(i)));
+            if (node == null) {
+                return false;
+            }
+            path.add(node);
+        }
+        if (node.values == null || !node.values.remove(value)) {
+            return false;
+        }
+        if (node.values.isEmpty()) {
+            node.values = null;
+        }
+        for (int i = 0; i < path.size(); i++) {
+            Node<V> current = path.get(i);
+            current.size--;
+            if (i > 0 && current.size == 0) {
+                path.get(i - 1).children.remove(Character.toLowerCase(key.charAt(i - 1)));
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get's every value where the key starts with the prefix.
+     *
+     * @param prefix Start of the key. An empty string matches everything.
+     * @return Matching values
+     */
+    public List<V> get(String prefix) {
+        return get(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get's values where the key starts with the prefix, up to a limit.
+     *
+     * @param prefix Start of the key. An empty string matches everything.
+     * @param limit Max amount of values to get
+     * @return Matching values
+     */
+    public List<V> get(String prefix, int limit) {
+        Node<V> start = find(prefix);
+        if (start == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<V> values = new ArrayList<>(Math.min(start.size, limit));
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty() && values.size() < limit) {
+            Node<V> node = stack.pop();
+            if (node.values != null) {
+                for (V value : node.values) {
+                    if (values.size() >= limit) {
+                        break;
+                    }
+                    values.add(value);
+                }
+            }
+            if (node.children != null) {
+                for (Node<V> child : node.children.values()) {
+                    stack.push(child);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Runs something on every value where the key starts with the prefix.
+     *
+     * @param prefix Start of the key. An empty string matches everything.
+     * @param consumer Consumer of values
+     */
+    public void forEach(String prefix, Consumer<V> consumer) {
+        Node<V> start = find(prefix);
+        if (start == null) {
+            return;
+        }
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node<V> node = stack.pop();
+            if (node.values != null) {
+                node.values.forEach(consumer);
+            }
+            if (node.children != null) {
+                for (Node<V> child : node.children.values()) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    private Node<V> find(String prefix) {
+        Node<V> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children == null ? null : node.children.get(Character.toLowerCase(prefix.charAt(i)));
+        }
+        return node;
+    }
+
+}
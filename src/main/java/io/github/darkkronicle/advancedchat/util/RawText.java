@@ -1,6 +1,5 @@
 package io.github.darkkronicle.advancedchat.util;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.With;
@@ -20,22 +19,37 @@ import java.util.Optional;
 
 /**
  * Class that allows for easy mutable objects that are like minecraft Text.
+ *
+ * Styles are put through the {@link StylePool} so that equal styles are shared between runs.
  */
 
 @Accessors(chain = true)
-@AllArgsConstructor
 @Environment(EnvType.CLIENT)
 public class RawText implements MutableText {
     @Getter @Setter @With
     private String message;
-    @Getter @Setter @With
+    @Getter
     private Style style;
 
+    public RawText(String message, Style style) {
+        this.message = message;
+        this.style = StylePool.getInstance().intern(style);
+    }
+
     private RawText(RawText text) {
         this.style = text.withStyle(text.getStyle()).getStyle();
         this.message = text.getMessage();
     }
 
+    public RawText setStyle(Style style) {
+        this.style = StylePool.getInstance().intern(style);
+        return this;
+    }
+
+    public RawText withStyle(Style style) {
+        return this.style == style ? this : new RawText(message, style);
+    }
+
     /**
      * Apply a color to the RawText
      * @param string Content
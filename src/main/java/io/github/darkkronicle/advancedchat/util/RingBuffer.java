@@ -0,0 +1,174 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A fixed capacity circular buffer that is indexed newest first.
+ *
+ * Adding a new element with {@link #addFirst(Object)} is O(1) and evicts the oldest element once the buffer is full.
+ * Index 0 is always the newest element, and {@link #size()} - 1 the oldest.
+ *
+ * @param <T> Type of element
+ */
+public class RingBuffer<T> extends AbstractList<T> implements RandomAccess {
+
+    private Object[] elements;
+
+    /**
+     * Physical index of the oldest element
+     */
+    private int start = 0;
+
+    private int size = 0;
+
+    public RingBuffer(int capacity) {
+        this.elements = new Object[Math.max(1, capacity)];
+    }
+
+    public int getCapacity() {
+        return elements.length;
+    }
+
+    private int physical(int index) {
+        return (start + size - 1 - index) % elements.length;
+    }
+
+    /**
+     * Adds a new element as the newest.
+     *
+     * @param element Element to add
+     * @return The oldest element if it was evicted, otherwise null
+     */
+    @SuppressWarnings("unchecked")
+    public T addFirst(T element) {
+        modCount++;
+        if (size == elements.length) {
+            T evicted = (T) elements[start];
+            elements[start] = element;
+            start = (start + 1) % elements.length;
+            return evicted;
+        }
+        elements[(start + size) % elements.length] = element;
+        size++;
+        return null;
+    }
+
+    /**
+     * Changes the capacity. If there are more elements than the new capacity the oldest ones are removed.
+     *
+     * @param capacity New capacity
+     */
+    public void setCapacity(int capacity) {
+        capacity = Math.max(1, capacity);
+        if (capacity == elements.length) {
+            return;
+        }
+        modCount++;
+        int newSize = Math.min(size, capacity);
+        Object[] newElements = new Object[capacity];
+        // Oldest that is kept goes to the start of the new array
+        for (int i = 0; i < newSize; i++) {
+            newElements[i] = get(newSize - 1 - i);
+        }
+        elements = newElements;
+        start = 0;
+        size = newSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) elements[physical(index)];
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T old = get(index);
+        elements[physical(index)] = element;
+        return old;
+    }
+
+    /**
+     * Inserts an element, shifting the elements at and after the index to be one older. If the buffer is full the
+     * oldest element is evicted first, so adding at {@link #size()} replaces the oldest element.
+     *
+     * {@link #add(Object)} adds as the oldest element. Use {@link #addFirst(Object)} to add the newest one.
+     */
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        modCount++;
+        if (size == elements.length) {
+            elements[start] = null;
+            start = (start + 1) % elements.length;
+            size--;
+            index = Math.min(index, size);
+        }
+        // Everything already moved one older by growing, move the newer ones back
+        size++;
+        for (int i = 0; i < index; i++) {
+            elements[physical(i)] = elements[physical(i + 1)];
+        }
+        elements[physical(index)] = element;
+    }
+
+    @Override
+    public T remove(int index) {
+        T old = get(index);
+        modCount++;
+        // Shift everything older than the index up by one, then drop the oldest slot
+        for (int i = index; i < size - 1; i++) {
+            elements[physical(i)] = elements[physical(i + 1)];
+        }
+        elements[start] = null;
+        start = (start + 1) % elements.length;
+        size--;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = null;
+        }
+        start = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A live view of this buffer that is indexed oldest first.
+     *
+     * @return Oldest first view
+     */
+    public List<T> oldestFirst() {
+        return new OldestFirst();
+    }
+
+    private class OldestFirst extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(int index) {
+            return RingBuffer.this.get(size - 1 - index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.text.Style;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds {@link RawText}'s one character at a time.
+ *
+ * Characters with the same style as the one before are put in a {@link StringBuilder}, and a {@link RawText} is only
+ * made once the style changes. This keeps building text linear instead of joining strings for every character.
+ */
+@Environment(EnvType.CLIENT)
+public class RunBuilder {
+
+    private final List<RawText> runs = new ArrayList<>();
+    private final StringBuilder builder = new StringBuilder();
+    private Style style = null;
+
+    /**
+     * Adds a character
+     *
+     * @param c Character to add
+     * @param style Style of the character
+     */
+    public void append(char c, Style style) {
+        next(style);
+        builder.append(c);
+    }
+
+    /**
+     * Adds a code point
+     *
+     * @param codePoint Code point to add
+     * @param style Style of the code point
+     */
+    public void appendCodePoint(int codePoint, Style style) {
+        next(style);
+        builder.appendCodePoint(codePoint);
+    }
+
+    private void next(Style style) {
+        if (this.style != null && !StylePool.getInstance().equals(this.style, style)) {
+            flush();
+        }
+        this.style = style;
+    }
+
+    private void flush() {
+        if (builder.length() > 0) {
+            runs.add(new RawText(builder.toString(), style));
+            builder.setLength(0);
+        }
+    }
+
+    /**
+     * Get's the runs that have been built
+     *
+     * @return List of runs, one for each change in style
+     */
+    public List<RawText> build() {
+        flush();
+        return runs;
+    }
+
+}
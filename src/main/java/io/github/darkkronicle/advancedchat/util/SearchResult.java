@@ -53,7 +53,17 @@ public class SearchResult {
     }
 
     public static SearchResult searchOf(String input, Matcher oldMatcher) {
-        Pattern pattern = oldMatcher.pattern();
+        return searchOf(input, oldMatcher.pattern());
+    }
+
+    /**
+     * Finds all matches of an already compiled {@link Pattern}
+     *
+     * @param input String to search
+     * @param pattern Compiled pattern
+     * @return Results of the search
+     */
+    public static SearchResult searchOf(String input, Pattern pattern) {
         Matcher matcher = pattern.matcher(input);
         List<StringMatch> matches = new ArrayList<>();
         while (matcher.find()) {
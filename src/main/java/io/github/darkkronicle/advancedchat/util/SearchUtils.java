@@ -1,13 +1,11 @@
 package io.github.darkkronicle.advancedchat.util;
 
 import io.github.darkkronicle.advancedchat.chat.MessageOwner;
-import io.github.darkkronicle.advancedchat.config.ConfigStorage;
 import io.github.darkkronicle.advancedchat.config.Filter;
 import lombok.AllArgsConstructor;
 import lombok.experimental.UtilityClass;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
-import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.client.network.PlayerListEntry;
 
 import java.util.ArrayList;
@@ -54,22 +52,14 @@ public class SearchUtils {
     /**
      * Compiles a {@link Pattern} for the specified {@link Filter.FindType}
      *
+     * Patterns are stored in {@link PatternCache} so the same expression is only compiled once.
+     *
      * @param toMatch Match string
      * @param type Find type
      * @return Compiled pattern
      */
     public Pattern compilePattern(String toMatch, Filter.FindType type) {
-        switch (type) {
-            case UPPERLOWER:
-                return Pattern.compile(Pattern.quote(toMatch), Pattern.CASE_INSENSITIVE);
-            case LITERAL:
-                return Pattern.compile(Pattern.quote(toMatch));
-            case REGEX:
-                return Pattern.compile(toMatch);
-            case ALL:
-                return Pattern.compile(".+");
-        }
-        return null;
+        return PatternCache.getInstance().get(toMatch, type);
     }
 
     /**
@@ -129,15 +119,16 @@ public class SearchUtils {
     /**
      * Get the author of a message using regex
      *
-     * @param networkHandler Network handler to get player data
+     * @param entries Players to look through. Shouldn't be changed while this is running.
+     * @param ownerRegex Regex that finds names
      * @param text Text to search
      * @return Owner of the message
      */
-    public MessageOwner getAuthor(ClientPlayNetworkHandler networkHandler, String text) {
-        if (networkHandler == null) {
+    public MessageOwner getAuthor(List<PlayerListEntry> entries, String ownerRegex, String text) {
+        if (entries.isEmpty()) {
             return null;
         }
-        Optional<List<StringMatch>> words = SearchUtils.findMatches(stripColorCodes(text), ConfigStorage.General.MESSAGE_OWNER_REGEX.config.getStringValue(), Filter.FindType.REGEX);
+        Optional<List<StringMatch>> words = SearchUtils.findMatches(stripColorCodes(text), ownerRegex, Filter.FindType.REGEX);
         if (!words.isPresent()) {
             return null;
         }
@@ -148,7 +139,7 @@ public class SearchUtils {
             if (player != null) {
                 break;
             }
-            for (PlayerListEntry e : networkHandler.getPlayerList()) {
+            for (PlayerListEntry e : entries) {
                 // Easy mode
                 if ((e.getDisplayName() != null && m.match.equals(stripColorCodes(e.getDisplayName().getString()))) || m.match.equals(e.getProfile().getName())) {
                     player = e;
@@ -159,9 +150,9 @@ public class SearchUtils {
         }
         // Check for ***everything***
         HashMap<PlayerListEntry, List<StringMatch>> entryMatches = new HashMap<>();
-        for (PlayerListEntry e : networkHandler.getPlayerList()) {
+        for (PlayerListEntry e : entries) {
             String name = stripColorCodes(e.getDisplayName() == null ? e.getProfile().getName() : e.getDisplayName().getString());
-            Optional<List<StringMatch>> nameWords = SearchUtils.findMatches(name, ConfigStorage.General.MESSAGE_OWNER_REGEX.config.getStringValue(), Filter.FindType.REGEX);
+            Optional<List<StringMatch>> nameWords = SearchUtils.findMatches(name, ownerRegex, Filter.FindType.REGEX);
             if (!nameWords.isPresent()) {
                 continue;
             }
@@ -182,8 +173,10 @@ public class SearchUtils {
         return null;
     }
 
+    private final Pattern COLOR_CODE = Pattern.compile("§.");
+
     public String stripColorCodes(String string) {
-        return string.replaceAll("§.", "");
+        return COLOR_CODE.matcher(string).replaceAll("");
     }
 
     private final TreeMap<Integer, String> map = new TreeMap<>();
@@ -104,11 +104,12 @@ public class StyleFormatter {
         }
         Formatting formatting = Formatting.byCode(nextChar);
         if (formatting != null) {
+            StylePool pool = StylePool.getInstance();
             if (formatting == Formatting.RESET) {
                 // If it resets, just go to what the current text is.
                 currentStyle = textStyle;
             } else {
-                if (currentStyle.equals(Style.EMPTY) || currentStyle.equals(textStyle)) {
+                if (pool.equals(currentStyle, Style.EMPTY) || pool.equals(currentStyle, textStyle)) {
                     // If it's empty or different rely on just the current text style
                     currentStyle = textStyle.withExclusiveFormatting(formatting);
                 } else {
@@ -116,9 +117,11 @@ public class StyleFormatter {
                     currentStyle = currentStyle.withExclusiveFormatting(formatting);
                 }
             }
-            if (currentStyle.equals(Style.EMPTY)) {
+            if (pool.equals(currentStyle, Style.EMPTY)) {
                 currentStyle = textStyle;
             }
+            // Every character after this gets compared to it
+            currentStyle = pool.intern(currentStyle);
         }
         currentIndex++;
         return Result.INCREMENT;
@@ -175,14 +178,14 @@ public class StyleFormatter {
      * @return Formatted text
      */
     public static FluidText formatText(FluidText text) {
-        FluidText t = new FluidText();
+        RunBuilder runs = new RunBuilder();
         int length = text.getString().length();
         StyleFormatter formatter = new StyleFormatter((c, index, formattedIndex, style, formattedStyle) -> {
-            t.append(new RawText(String.valueOf(c), formattedStyle), false);
+            runs.append(c, formattedStyle);
             return true;
         }, length);
         text.visit(formatter::updateStyle, Style.EMPTY);
-        return t;
+        return new FluidText(runs.build());
     }
 
     /**
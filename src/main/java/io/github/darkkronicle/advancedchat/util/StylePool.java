@@ -0,0 +1,142 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import com.google.common.collect.MapMaker;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.text.Style;
+import org.apache.logging.log4j.LogManager;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * A bounded pool of {@link Style}'s so that equal styles are the same object.
+ *
+ * Chat only uses a few different styles, but every {@link RawText} used to hold its own copy and they were compared
+ * field by field. Two styles from the pool can be compared by reference. Styles are weakly referenced so ones that
+ * aren't used anymore get removed. Once the pool is full styles that are already in it are still shared, but new ones
+ * are used as is and comparing them falls back to {@link Style#equals(Object)}.
+ */
+@Environment(EnvType.CLIENT)
+public class StylePool {
+
+    private final static StylePool INSTANCE = new StylePool(4096);
+
+    public static StylePool getInstance() {
+        return INSTANCE;
+    }
+
+    private final int capacity;
+
+    /**
+     * Looks up the pooled style that's equal to another. Both the key and value are the pooled style, so neither
+     * keeps it around.
+     */
+    private final Map<Style, WeakReference<Style>> lookup = new WeakHashMap<>();
+
+    /**
+     * Styles that are in {@link #lookup}. Weak keys are compared by reference.
+     */
+    private final Set<Style> pooled = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+    private long deduplicated = 0;
+    private long skipped = 0;
+
+    public StylePool(int capacity) {
+        this.capacity = capacity;
+        // Empty styles get checked for all the time
+        intern(Style.EMPTY);
+    }
+
+    /**
+     * Get's the pooled style that is equal to a style, adding it if there isn't one.
+     *
+     * @param style Style to pool
+     * @return Equal style from the pool, or the same style if the pool is full
+     */
+    public Style intern(Style style) {
+        if (style == null || pooled.contains(style)) {
+            return style;
+        }
+        synchronized (this) {
+            WeakReference<Style> reference = lookup.get(style);
+            Style existing = reference == null ? null : reference.get();
+            if (existing != null) {
+                deduplicated++;
+                return existing;
+            }
+            // Only new styles are turned away when it's full
+            if (lookup.size() >= capacity) {
+                skipped++;
+                return style;
+            }
+            lookup.put(style, new WeakReference<>(style));
+            pooled.add(style);
+            return style;
+        }
+    }
+
+    /**
+     * Checks if two styles are equal. Pooled styles are only compared by reference.
+     *
+     * @param style First style
+     * @param other Second style
+     * @return If they're equal
+     */
+    public boolean equals(Style style, Style other) {
+        if (style == other) {
+            return true;
+        }
+        if (style == null || other == null) {
+            return false;
+        }
+        if (pooled.contains(style) && pooled.contains(other)) {
+            // Only one of each style is in the pool
+            return false;
+        }
+        return style.equals(other);
+    }
+
+    public int size() {
+        return pooled.size();
+    }
+
+    /**
+     * Get's how many styles have been replaced with one that was already in the pool
+     *
+     * @return Amount of styles deduplicated
+     */
+    public synchronized long getDeduplicated() {
+        return deduplicated;
+    }
+
+    /**
+     * Get's how many styles weren't pooled since the pool was full
+     *
+     * @return Amount of styles skipped
+     */
+    public synchronized long getSkipped() {
+        return skipped;
+    }
+
+    public synchronized void resetStats() {
+        deduplicated = 0;
+        skipped = 0;
+    }
+
+    /**
+     * Logs how the pool has done since the stats were last reset, and then resets them
+     */
+    public synchronized void logStats() {
+        if (deduplicated == 0 && skipped == 0) {
+            return;
+        }
+        LogManager.getLogger().info("[AdvancedChat] Style pool has {}/{} styles. {} styles were shared and {} weren't pooled since it was full",
+                lookup.size(), capacity, deduplicated, skipped);
+        resetStats();
+    }
+
+}
@@ -2,12 +2,12 @@ package io.github.darkkronicle.advancedchat.util;
 
 import lombok.AllArgsConstructor;
 import lombok.Value;
+import net.minecraft.client.MinecraftClient;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 // Refereneced https://github.com/vacla/Watson/blob/fabric_1.16.2/src/main/java/eu/minemania/watson/scheduler/SyncTaskQueue.java
 public class SyncTaskQueue {
@@ -18,42 +18,67 @@ public class SyncTaskQueue {
         return INSTANCE;
     }
 
-    private int lastTick = 0;
+    private volatile int lastTick = 0;
+
+    /**
+     * Used to keep tasks that are queued for the same tick in the order they were added.
+     */
+    private long sequence = 0;
 
     @Value
     @AllArgsConstructor
     public static class QueuedTask implements Comparable<QueuedTask> {
         int tick;
+        long sequence;
         Runnable task;
 
         @Override
         public int compareTo(@NotNull SyncTaskQueue.QueuedTask o) {
-            return Integer.compare(tick, o.tick);
+            int compare = Integer.compare(tick, o.tick);
+            if (compare != 0) {
+                return compare;
+            }
+            return Long.compare(sequence, o.sequence);
         }
     }
 
     private final TreeSet<QueuedTask> queue = new TreeSet<>();
 
-    public void add(int after, Runnable runnable) {
-        queue.add(new QueuedTask(lastTick + after, runnable));
+    /**
+     * Queues a task to be run on the client thread. This can be called from any thread.
+     *
+     * @param after Amount of ticks to wait
+     * @param runnable Task to run
+     */
+    public synchronized void add(int after, Runnable runnable) {
+        queue.add(new QueuedTask(lastTick + after, sequence++, runnable));
+    }
+
+    /**
+     * Runs the task right away if this is the client thread, otherwise it's queued for the next tick.
+     *
+     * @param runnable Task to run
+     */
+    public void runOnClient(Runnable runnable) {
+        if (MinecraftClient.getInstance().isOnThread()) {
+            runnable.run();
+        } else {
+            add(0, runnable);
+        }
     }
 
     public void update(int tick) {
         lastTick = tick;
-        if (queue.size() == 0) {
-            return;
+        List<QueuedTask> toRun = new ArrayList<>();
+        synchronized (this) {
+            while (!queue.isEmpty() && queue.first().tick <= lastTick) {
+                toRun.add(queue.pollFirst());
+            }
         }
-        QueuedTask task = queue.first();
-        while (task != null && task.tick <= lastTick) {
+        // Run outside of the lock so tasks can queue more tasks
+        for (QueuedTask task : toRun) {
             task.task.run();
-            queue.pollFirst();
-            if (queue.size() == 0) {
-                break;
-            }
-            task = queue.first();
         }
     }
 
-
-
 }
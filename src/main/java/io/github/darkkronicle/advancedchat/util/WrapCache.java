@@ -0,0 +1,95 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import lombok.Value;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.text.Text;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stores the result of wrapping a {@link PackedText} to a width so that messages that share the same text don't have
+ * to wrap and measure it again.
+ *
+ * Texts are compared by identity. The packed text is held by the message payload for as long as the message is
+ * stored, so only the texts that were wrapped last are kept. That's about what the open windows show, so a message
+ * that scrolls back into view or is in more than one window doesn't get wrapped again, while released messages don't
+ * keep their lines. The width is the scaled width, so windows with a different scale get a different entry.
+ */
+@Environment(EnvType.CLIENT)
+public class WrapCache {
+
+    private final static WrapCache INSTANCE = new WrapCache();
+
+    /**
+     * How many widths are kept for each text. Resizing a window goes through a lot of widths, only the latest ones
+     * are useful.
+     */
+    private final static int WIDTHS_PER_TEXT = 4;
+
+    /**
+     * How many texts are kept. A bit more than a few full windows of messages.
+     */
+    private final static int MAX_TEXTS = 256;
+
+    public static WrapCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Wrapped lines of a text and the rendered width of each line.
+     */
+    @Value
+    public static class Wrapped {
+        ImmutableList<Text> lines;
+        int[] widths;
+    }
+
+    private final Cache<PackedText, Map<Integer, Wrapped>> cache = CacheBuilder.newBuilder().weakKeys().maximumSize(MAX_TEXTS).build();
+
+    private WrapCache() {
+
+    }
+
+    /**
+     * Get's the wrapped lines for a text, wrapping it if it hasn't been wrapped to this width yet.
+     *
+     * @param text Text to wrap. A {@link Text} is only made from it if it has to be wrapped.
+     * @param width Width that the line breaks should be enforced. 0 doesn't wrap.
+     * @return Wrapped lines
+     */
+    public Wrapped get(PackedText text, int width) {
+        Map<Integer, Wrapped> widths = cache.asMap().computeIfAbsent(text, t -> new LinkedHashMap<Integer, Wrapped>(WIDTHS_PER_TEXT, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Wrapped> eldest) {
+                return size() > WIDTHS_PER_TEXT;
+            }
+        });
+        synchronized (widths) {
+            return widths.computeIfAbsent(width, w -> wrap(text, w));
+        }
+    }
+
+    private static Wrapped wrap(PackedText packed, int width) {
+        TextRenderer renderer = MinecraftClient.getInstance().textRenderer;
+        Text text = packed.toText();
+        ImmutableList<Text> lines;
+        if (width == 0) {
+            lines = ImmutableList.of(text);
+        } else {
+            lines = ImmutableList.copyOf(StyleFormatter.wrapText(renderer, width, text));
+        }
+        int[] widths = new int[lines.size()];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = renderer.getWidth(lines.get(i));
+        }
+        return new Wrapped(lines, widths);
+    }
+
+}
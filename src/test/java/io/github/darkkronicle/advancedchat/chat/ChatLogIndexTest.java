@@ -0,0 +1,81 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import io.github.darkkronicle.advancedchat.config.Filter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ChatLogIndexTest {
+
+    private final static String[] MESSAGES = {
+            "§cServer restarting",
+            "<Steve> hello there",
+            "ABC joined the game",
+            "<Alex> HELLO again",
+            "nothing to see",
+    };
+
+    private static ChatLogIndex index() {
+        ChatLogIndex index = new ChatLogIndex();
+        for (String message : MESSAGES) {
+            index.add(message);
+        }
+        return index;
+    }
+
+    /**
+     * Searches the same way {@link io.github.darkkronicle.advancedchat.config.ChatLogData} does
+     */
+    private static List<Integer> search(ChatLogIndex index, String search, Filter.FindType type) {
+        int[] candidates = index.getCandidates(search, type);
+        Pattern pattern = type == Filter.FindType.REGEX ? Pattern.compile(search) : Pattern.compile(Pattern.quote(search), Pattern.CASE_INSENSITIVE);
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < MESSAGES.length; i++) {
+            if (candidates != null && Arrays.binarySearch(candidates, i) < 0) {
+                continue;
+            }
+            if (pattern.matcher(MESSAGES[i]).find()) {
+                found.add(i);
+            }
+        }
+        return found;
+    }
+
+    @Test
+    public void literalCandidates() {
+        ChatLogIndex index = index();
+        assertArrayEquals(new int[]{1, 3}, index.getCandidates("hello", Filter.FindType.UPPERLOWER));
+        assertArrayEquals(new int[0], index.getCandidates("creeper", Filter.FindType.LITERAL));
+        assertNull(index.getCandidates("he", Filter.FindType.LITERAL));
+    }
+
+    @Test
+    public void regexSearch() {
+        ChatLogIndex index = index();
+        assertEquals(List.of(1), search(index, "<\\w+> hello", Filter.FindType.REGEX));
+        assertEquals(List.of(2), search(index, "[A-Z]+ joined", Filter.FindType.REGEX));
+    }
+
+    @Test
+    public void regexSearchWithEscapes() {
+        ChatLogIndex index = index();
+        assertEquals(List.of(0), search(index, "\\u00a7c", Filter.FindType.REGEX));
+        assertEquals(List.of(2), search(index, "\\x41BC", Filter.FindType.REGEX));
+        assertEquals(List.of(0), search(index, "\\p{So}?\\u00a7cServer", Filter.FindType.REGEX));
+    }
+
+    @Test
+    public void evictedMessagesAreDropped() {
+        ChatLogIndex index = index();
+        index.setFirst(2);
+        assertArrayEquals(new int[]{3}, index.getCandidates("hello", Filter.FindType.UPPERLOWER));
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.github.darkkronicle.advancedchat.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ChatLogSegmentTest {
+
+    /**
+     * Makes a record with a length prefix like {@link ChatLogCodec#encode(ChatLogMessage, long)}
+     */
+    private static byte[] record(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    private static String body(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt(buffer.position() - 4)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void readWhileRecordsAreBuffered() throws Exception {
+        Path path = Files.createTempFile("advancedchat", ".log");
+        try {
+            ChatLogSegment segment = new ChatLogSegment(path);
+            segment.append(record("first"));
+            segment.flush();
+            segment.append(record("second"));
+            // Second is still buffered, only the first is in the file
+            assertEquals("first", body(segment.readRecord(0)));
+            segment.append(record("third"));
+            assertEquals("first", body(segment.readRecord(0)));
+            assertEquals("third", body(segment.readRecord(2)));
+            assertEquals("second", body(segment.readRecord(1)));
+            segment.close();
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void loadFindsRecords() throws Exception {
+        Path path = Files.createTempFile("advancedchat", ".log");
+        try {
+            ChatLogSegment segment = new ChatLogSegment(path);
+            segment.append(record("hello"));
+            segment.append(record("there"));
+            segment.close();
+            // Partially written record gets cut off
+            Files.write(path, new byte[]{0, 0, 0, 9, 1}, StandardOpenOption.APPEND);
+
+            ChatLogSegment loaded = new ChatLogSegment(path);
+            loaded.load();
+            assertEquals(2, loaded.getCount());
+            assertEquals("there", body(loaded.readRecord(1)));
+            assertEquals((long) (record("hello").length + record("there").length), Files.size(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+}
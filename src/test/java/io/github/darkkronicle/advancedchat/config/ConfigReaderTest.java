@@ -0,0 +1,95 @@
+package io.github.darkkronicle.advancedchat.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import fi.dy.masa.malilib.util.JsonUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConfigReaderTest {
+
+    private static File resource(String name) throws Exception {
+        return new File(ConfigReaderTest.class.getResource("/config/" + name).toURI());
+    }
+
+    private static String text(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static List<JsonObject> objects(JsonArray array) {
+        List<JsonObject> objects = new ArrayList<>();
+        for (JsonElement element : array) {
+            if (element.isJsonObject()) {
+                objects.add(element.getAsJsonObject());
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * Reads a file with {@link ConfigReader} and checks it against the tree the old loader parsed
+     *
+     * @return Sections joined back together the way {@link ConfigWriter} writes them
+     */
+    private static String roundTrip(File file) throws Exception {
+        JsonObject tree = JsonParser.parseString(text(file)).getAsJsonObject();
+        List<JsonObject> filters = new ArrayList<>();
+        List<JsonObject> tabs = new ArrayList<>();
+        ConfigReader.Result result = new ConfigReader()
+                .stream(ConfigStorage.FILTER_KEY, Function.identity(), filters)
+                .stream(ConfigStorage.TABS_KEY, Function.identity(), tabs)
+                .read(file)
+                .get();
+
+        // Filters and tabs are loaded from the same objects as before
+        assertEquals(objects(tree.getAsJsonArray(ConfigStorage.FILTER_KEY)), filters);
+        assertEquals(objects(tree.getAsJsonArray(ConfigStorage.TABS_KEY)), tabs);
+
+        JsonObject rest = tree.deepCopy();
+        rest.remove(ConfigStorage.FILTER_KEY);
+        rest.remove(ConfigStorage.TABS_KEY);
+        assertEquals(rest, result.getRoot());
+
+        // Saving it unchanged writes the same file the old writer did
+        String joined = ConfigWriter.join(result.getSections());
+        assertEquals(JsonUtils.GSON.toJson(tree), joined);
+        return joined;
+    }
+
+    @Test
+    public void savedConfigIsWrittenBackTheSame() throws Exception {
+        File file = resource("advancedchat.json");
+        assertEquals(text(file), roundTrip(file));
+    }
+
+    @Test
+    public void compactConfig() throws Exception {
+        roundTrip(resource("compact.json"));
+    }
+
+    @Test
+    public void laterKeysReplaceEarlierOnes() throws Exception {
+        File file = File.createTempFile("advancedchat", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "{\"filters\": [{\"name\": \"a\"}], \"general\": {}, \"filters\": [{\"name\": \"b\"}]}".getBytes(StandardCharsets.UTF_8));
+        List<JsonObject> filters = new ArrayList<>();
+        ConfigReader.Result result = new ConfigReader()
+                .stream(ConfigStorage.FILTER_KEY, Function.identity(), filters)
+                .read(file)
+                .get();
+        assertEquals(1, filters.size());
+        assertEquals("b", filters.get(0).get("name").getAsString());
+        assertEquals("{\n  \"filters\": [\n    {\n      \"name\": \"b\"\n    }\n  ],\n  \"general\": {}\n}", ConfigWriter.join(result.getSections()));
+    }
+
+}
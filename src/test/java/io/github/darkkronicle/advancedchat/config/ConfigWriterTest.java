@@ -0,0 +1,52 @@
+package io.github.darkkronicle.advancedchat.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import fi.dy.masa.malilib.util.JsonUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConfigWriterTest {
+
+    private static String join(JsonObject root) {
+        Map<String, String> sections = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : root.entrySet()) {
+            sections.put(entry.getKey(), JsonUtils.GSON.toJson(entry.getValue()));
+        }
+        return ConfigWriter.join(sections);
+    }
+
+    @Test
+    public void joinedSectionsMatchGson() {
+        JsonObject root = new JsonObject();
+        JsonObject general = new JsonObject();
+        general.addProperty("abbreviation", "<&>");
+        general.addProperty("mainColor", 0xFF00FF);
+        root.add("general", general);
+
+        JsonArray filters = new JsonArray();
+        JsonObject filter = new JsonObject();
+        filter.addProperty("findString", "line\nbreak \"quoted\"");
+        filter.add("children", new JsonArray());
+        filter.add("processors", new JsonObject());
+        filters.add(filter);
+        filters.add(new JsonObject());
+        root.add("filters", filters);
+
+        root.add("chattabs", new JsonArray());
+        root.addProperty("config \"version\"", 1);
+
+        assertEquals(JsonUtils.GSON.toJson(root), join(root));
+    }
+
+    @Test
+    public void emptyRoot() {
+        assertEquals(JsonUtils.GSON.toJson(new JsonObject()), join(new JsonObject()));
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.github.darkkronicle.advancedchat.filters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class FilterMatcherTest {
+
+    @Test
+    public void literalsAreKept() {
+        assertEquals("hello world", FilterMatcher.getRequiredLiteral("hello world"));
+        assertEquals("foo.bar", FilterMatcher.getRequiredLiteral("foo\\.bar"));
+        assertEquals(" joined", FilterMatcher.getRequiredLiteral("\\d+ joined"));
+    }
+
+    @Test
+    public void longestRequiredRunIsPicked() {
+        assertEquals(" the game", FilterMatcher.getRequiredLiteral("\\w+ joined? the game"));
+        assertEquals("abc", FilterMatcher.getRequiredLiteral("x*abc"));
+    }
+
+    @Test
+    public void nothingRequired() {
+        assertNull(FilterMatcher.getRequiredLiteral(".*"));
+        assertNull(FilterMatcher.getRequiredLiteral("a|b"));
+        assertNull(FilterMatcher.getRequiredLiteral("(?i)hello"));
+        assertNull(FilterMatcher.getRequiredLiteral("\\Qhello\\E"));
+    }
+
+    @Test
+    public void escapesWithArgumentsAreNotLiterals() {
+        assertNull(FilterMatcher.getRequiredLiteral("\\u00a7c"));
+        assertNull(FilterMatcher.getRequiredLiteral("\\x41bc"));
+        assertNull(FilterMatcher.getRequiredLiteral("\\0101abc"));
+        assertNull(FilterMatcher.getRequiredLiteral("\\cXabc"));
+        // Only the \k stops <n>bcd from being a literal
+        assertNull(FilterMatcher.getRequiredLiteral("a\\k<n>bcd"));
+        assertNull(FilterMatcher.getRequiredLiteral("\\p{L}abc"));
+        assertNull(FilterMatcher.getRequiredLiteral("\\P{L}abc"));
+        assertNull(FilterMatcher.getRequiredLiteral("\\N{LATIN SMALL LETTER A}bc"));
+        assertNull(FilterMatcher.getRequiredLiteral("(a)\\1abc"));
+    }
+
+    @Test
+    public void characterClassesAreSkipped() {
+        assertEquals("def", FilterMatcher.getRequiredLiteral("[abc]def"));
+        assertEquals("xyz", FilterMatcher.getRequiredLiteral("[a-z&&[^aeiou]]xyz"));
+        assertEquals("xyz", FilterMatcher.getRequiredLiteral("[]a]xyz"));
+        assertEquals("xyz", FilterMatcher.getRequiredLiteral("[^]a]xyz"));
+        assertEquals("xyz", FilterMatcher.getRequiredLiteral("[\\]]xyz"));
+    }
+
+}
@@ -0,0 +1,289 @@
+package io.github.darkkronicle.advancedchat.gui;
+
+import io.github.darkkronicle.advancedchat.util.ColorUtil;
+import io.github.darkkronicle.advancedchat.util.EasingMethod;
+import io.github.darkkronicle.advancedchat.util.FluidText;
+import io.github.darkkronicle.advancedchat.util.RawText;
+import net.minecraft.client.font.TextHandler;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+import net.minecraft.text.TextColor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the CPU work of {@link ChatWindow}'s drawLine for 100 visible lines, before and after lines cached what
+ * they draw. Run with {@code ./gradlew drawLineBenchmark}.
+ *
+ * Both paths use the mod's {@link FluidText} and {@link RawText} the same way drawLine does, and width goes through a
+ * {@link TextHandler} like the text renderer's. The client can't be started here, so config options are plain fields
+ * and drawWithShadow is two glyph passes over the text. Nothing is sent to the GPU.
+ */
+public class DrawLineBenchmark {
+
+    private final static int LINES = 100;
+    private final static int FRAMES = 20000;
+    private final static int RUNS = 7;
+
+    /**
+     * Stand in for a config option, read the same amount of times as drawLine reads the real ones
+     */
+    private static class Option<T> {
+
+        private volatile T value;
+
+        private Option(T value) {
+            this.value = value;
+        }
+
+        private T get() {
+            return value;
+        }
+
+    }
+
+    private final static Option<Integer> LINE_SPACE = new Option<>(9);
+    private final static Option<Integer> BOTTOM_PAD = new Option<>(2);
+    private final static Option<Integer> MESSAGE_SPACE = new Option<>(0);
+    private final static Option<ColorUtil.SimpleColor> TEXT_COLOR = new Option<>(ColorUtil.WHITE);
+    private final static Option<Boolean> ALTERNATE_LINES = new Option<>(true);
+    private final static Option<Integer> FADE_START = new Option<>(100);
+    private final static Option<Integer> FADE_TIME = new Option<>(40);
+    private final static Option<EasingMethod> FADE_TYPE = new Option<>(EasingMethod.Method.LINEAR);
+    private final static Option<Boolean> COMPACT = new Option<>(false);
+    private final static Option<Boolean> CHAT_HEADS = new Option<>(true);
+
+    private final static ColorUtil.SimpleColor INNER_COLOR = new ColorUtil.SimpleColor(0, 0, 0, 100);
+
+    /**
+     * Glyph advance for each code point, like the font storage's glyph lookup
+     */
+    private final static float[] ADVANCES = new float[0x3000];
+
+    static {
+        for (int i = 0; i < ADVANCES.length; i++) {
+            ADVANCES[i] = 4 + (i % 3);
+        }
+    }
+
+    private final static TextHandler HANDLER = new TextHandler((codePoint, style) -> {
+        float advance = codePoint < ADVANCES.length ? ADVANCES[codePoint] : 6;
+        return style.isBold() ? advance + 1 : advance;
+    });
+
+    /**
+     * A line like {@link io.github.darkkronicle.advancedchat.chat.ChatMessage.AdvancedChatLine}, with the same caches
+     */
+    private static class Line {
+
+        private final Text text;
+        private final boolean first;
+        private final int stacks;
+        private final int creationTick = 0;
+
+        private OrderedText renderText;
+        private int renderWidth;
+        private int renderStacks = -1;
+
+        private ColorUtil.SimpleColor backgroundFrom;
+        private ColorUtil.SimpleColor background;
+        private ColorUtil.SimpleColor alternateBackground;
+
+        private Line(Text text, boolean first, int stacks) {
+            this.text = text;
+            this.first = first;
+            this.stacks = stacks;
+        }
+
+        private void updateRenderText(boolean showStacks) {
+            int shown = showStacks ? stacks : 0;
+            if (renderText != null && shown == renderStacks) {
+                return;
+            }
+            Text render = text;
+            if (shown > 0) {
+                FluidText toPrint = new FluidText(render);
+                toPrint.append(new RawText(" (" + (shown + 1) + ")", Style.EMPTY.withColor(TextColor.fromRgb(ColorUtil.GRAY.color()))), false);
+                render = toPrint;
+            }
+            renderText = render.asOrderedText();
+            renderWidth = (int) Math.ceil(HANDLER.getWidth(renderText));
+            renderStacks = shown;
+        }
+
+        private ColorUtil.SimpleColor getBackground(ColorUtil.SimpleColor fallback, boolean alternate) {
+            if (fallback != backgroundFrom) {
+                backgroundFrom = fallback;
+                background = fallback;
+                alternateBackground = fallback.withAlpha(fallback.alpha() <= 215 ? fallback.alpha() + 40 : fallback.alpha() - 40);
+            }
+            return alternate ? alternateBackground : background;
+        }
+
+    }
+
+    private static double sink = 0;
+
+    /**
+     * Stand in for drawWithShadow, which goes through every glyph once for the shadow and once for the text
+     */
+    private static void draw(OrderedText text, int color) {
+        sink += HANDLER.getWidth(text) + HANDLER.getWidth(text) + color;
+    }
+
+    /**
+     * drawLine before the cache. Reads config for every line, and makes the stack text and ordered text every frame.
+     */
+    private static void drawBefore(Line line, int lineIndex, int messageIndex, int ticks) {
+        int height = LINE_SPACE.get();
+        if (lineIndex == 0) {
+            height += MESSAGE_SPACE.get();
+        }
+        ColorUtil.SimpleColor background = INNER_COLOR;
+        ColorUtil.SimpleColor text = TEXT_COLOR.get();
+        if (messageIndex % 2 == 0 && ALTERNATE_LINES.get()) {
+            background = background.withAlpha(background.alpha() <= 215 ? background.alpha() + 40 : background.alpha() - 40);
+        }
+        int fadeStart = FADE_START.get();
+        int fadeStop = fadeStart + FADE_TIME.get();
+        int timeAlive = ticks - line.creationTick;
+        float percent = (float) Math.min(1, (double) (timeAlive - fadeStart) / (double) (fadeStop - fadeStart));
+        float applied = Math.max(0, 1 - (float) FADE_TYPE.get().apply(percent));
+        if (applied < 1) {
+            background = ColorUtil.fade(background, applied);
+            text = ColorUtil.fade(text, applied);
+        }
+        Text render = line.text;
+        if (line.stacks > 0 && lineIndex == 0) {
+            FluidText toPrint = new FluidText(render);
+            toPrint.append(new RawText(" (" + (line.stacks + 1) + ")", Style.EMPTY.withColor(TextColor.fromRgb(ColorUtil.GRAY.color()))), false);
+            render = toPrint;
+        }
+        int backgroundWidth = COMPACT.get() ? (int) Math.ceil(HANDLER.getWidth(render)) + 4 : 320;
+        boolean heads = CHAT_HEADS.get();
+        sink += height + backgroundWidth + background.color() + (heads ? 1 : 0) + BOTTOM_PAD.get();
+        draw(render.asOrderedText(), text.color());
+    }
+
+    /**
+     * drawLine now. Config is read once a frame, and the line keeps what it draws.
+     */
+    private static void drawAfter(Line line, int lineIndex, int messageIndex, int ticks, int lineSpace, int messageSpace, ColorUtil.SimpleColor textColor, boolean alternate, int fadeStart, int fadeStop, EasingMethod fadeType, boolean compact, boolean heads) {
+        int height = lineSpace;
+        if (lineIndex == 0) {
+            height += messageSpace;
+        }
+        ColorUtil.SimpleColor background = line.getBackground(INNER_COLOR, messageIndex % 2 == 0 && alternate);
+        ColorUtil.SimpleColor text = textColor;
+        int timeAlive = ticks - line.creationTick;
+        if (timeAlive > fadeStart) {
+            float percent = (float) Math.min(1, (double) (timeAlive - fadeStart) / (double) (fadeStop - fadeStart));
+            float applied = Math.max(0, 1 - (float) fadeType.apply(percent));
+            if (applied < 1) {
+                background = ColorUtil.fade(background, applied);
+                text = ColorUtil.fade(text, applied);
+            }
+        }
+        boolean showStacks = lineIndex == 0;
+        line.updateRenderText(showStacks);
+        int backgroundWidth = compact ? line.renderWidth + 4 : 320;
+        sink += height + backgroundWidth + background.color() + (heads ? 1 : 0);
+        draw(line.renderText, text.color());
+    }
+
+    private static void frameBefore(List<Line> lines, int ticks) {
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            drawBefore(line, line.first ? 0 : 1, i, ticks);
+        }
+    }
+
+    private static void frameAfter(List<Line> lines, int ticks) {
+        int lineSpace = LINE_SPACE.get();
+        int messageSpace = MESSAGE_SPACE.get();
+        ColorUtil.SimpleColor textColor = TEXT_COLOR.get();
+        boolean alternate = ALTERNATE_LINES.get();
+        int fadeStart = FADE_START.get();
+        int fadeStop = fadeStart + FADE_TIME.get();
+        EasingMethod fadeType = FADE_TYPE.get();
+        boolean compact = COMPACT.get();
+        boolean heads = CHAT_HEADS.get();
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            drawAfter(line, line.first ? 0 : 1, i, ticks, lineSpace, messageSpace, textColor, alternate, fadeStart, fadeStop, fadeType, compact, heads);
+        }
+    }
+
+    /**
+     * About 50 characters in 1 to 4 style runs. A third start a message and a fifth are stacked.
+     */
+    private static List<Line> makeLines() {
+        Random random = new Random(42);
+        String[] words = {"hello", "there", "Steve", "joined", "the", "game", "welcome", "to", "server", "[VIP]", "anyone", "want", "trade", "diamonds", "for", "iron", "ok", "lol", "gg"};
+        Style[] styles = {
+                Style.EMPTY,
+                Style.EMPTY.withColor(TextColor.fromRgb(0xFFFF55)),
+                Style.EMPTY.withColor(TextColor.fromRgb(0x55FF55)).withBold(true),
+                Style.EMPTY.withColor(TextColor.fromRgb(0xAAAAAA)),
+        };
+        List<Line> lines = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            List<RawText> runs = new ArrayList<>();
+            int runCount = 1 + random.nextInt(4);
+            for (int r = 0; r < runCount; r++) {
+                StringBuilder builder = new StringBuilder();
+                while (builder.length() < 50 / runCount) {
+                    builder.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                runs.add(new RawText(builder.toString(), styles[random.nextInt(styles.length)]));
+            }
+            boolean first = random.nextInt(3) == 0;
+            int stacks = random.nextInt(5) == 0 ? 1 + random.nextInt(4) : 0;
+            lines.add(new Line(new FluidText(runs), first, stacks));
+        }
+        return lines;
+    }
+
+    private interface Frame {
+        void draw(List<Line> lines, int ticks);
+    }
+
+    /**
+     * @return Median microseconds per frame
+     */
+    private static double measure(Frame frame, List<Line> lines) {
+        double[] runs = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < FRAMES; i++) {
+                // Before the fade starts, like chat that was just received
+                frame.draw(lines, 50 + (i & 31));
+            }
+            runs[run] = (System.nanoTime() - start) / (double) FRAMES / 1000;
+        }
+        Arrays.sort(runs);
+        return runs[RUNS / 2];
+    }
+
+    public static void main(String[] args) {
+        List<Line> lines = makeLines();
+        for (int i = 0; i < 3; i++) {
+            measure(DrawLineBenchmark::frameBefore, lines);
+            measure(DrawLineBenchmark::frameAfter, lines);
+        }
+        for (boolean compact : new boolean[]{false, true}) {
+            COMPACT.value = compact;
+            double before = measure(DrawLineBenchmark::frameBefore, lines);
+            double after = measure(DrawLineBenchmark::frameAfter, lines);
+            System.out.printf("%s, %d lines: before %.1f us/frame, after %.1f us/frame (%.1fx)%n", compact ? "Compact" : "Full", LINES, before, after, before / after);
+        }
+        if (sink == 0) {
+            System.out.println();
+        }
+    }
+
+}
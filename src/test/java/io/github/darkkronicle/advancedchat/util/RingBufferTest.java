@@ -0,0 +1,87 @@
+package io.github.darkkronicle.advancedchat.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RingBufferTest {
+
+    @Test
+    public void addFirstEvictsOldest() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        for (int i = 0; i < 5; i++) {
+            buffer.addFirst(i);
+        }
+        assertEquals(Arrays.asList(4, 3, 2), buffer);
+        assertEquals(Arrays.asList(2, 3, 4), buffer.oldestFirst());
+    }
+
+    @Test
+    public void addAtIndex() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        buffer.add(1);
+        buffer.add(3);
+        buffer.add(1, 2);
+        buffer.add(0, 0);
+        assertEquals(Arrays.asList(0, 1, 2, 3), buffer);
+        // Full, so the oldest goes first
+        buffer.add(2, 9);
+        assertEquals(Arrays.asList(0, 1, 9, 2), buffer);
+        buffer.add(8);
+        assertEquals(Arrays.asList(0, 1, 9, 8), buffer);
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.add(5, 1));
+    }
+
+    /**
+     * Does random operations on a buffer and a list and checks that they stay the same
+     */
+    @Test
+    public void sameAsList() {
+        Random random = new Random(7);
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            int operation = random.nextInt(5);
+            if (operation == 0) {
+                if (list.size() == 8) {
+                    list.remove(7);
+                }
+                list.add(0, i);
+                buffer.addFirst(i);
+            } else if (operation == 1) {
+                int index = random.nextInt(list.size() + 1);
+                if (list.size() == 8) {
+                    list.remove(7);
+                    index = Math.min(index, list.size());
+                }
+                list.add(index, i);
+                buffer.add(index, i);
+            } else if (operation == 2 && !list.isEmpty()) {
+                int index = random.nextInt(list.size());
+                assertEquals(list.remove(index), buffer.remove(index));
+            } else if (operation == 3 && !list.isEmpty()) {
+                int index = random.nextInt(list.size());
+                assertEquals(list.set(index, i), buffer.set(index, i));
+            } else if (operation == 4) {
+                int capacity = 1 + random.nextInt(8);
+                if (list.size() > capacity) {
+                    list.subList(capacity, list.size()).clear();
+                }
+                buffer.setCapacity(capacity);
+                buffer.setCapacity(8);
+            }
+            assertEquals(list, buffer);
+        }
+        List<Integer> reversed = new ArrayList<>(list);
+        Collections.reverse(reversed);
+        assertEquals(reversed, buffer.oldestFirst());
+    }
+
+}